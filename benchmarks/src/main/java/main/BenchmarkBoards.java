@@ -0,0 +1,45 @@
+package main;
+
+
+//Starting boards shared by the benchmarks, named by size and number of colors, e.g. "T5-3".
+//Each is a monochromatic board with its starting vacancy in the top corner: the first hole representative
+//of every size (see Symmetry), and a board every configuration can solve.
+public class BenchmarkBoards {
+
+	//Returns the number of rows of a named board.
+	public static int size(String name) {
+		return Integer.parseInt(name.substring(1, name.indexOf('-')));
+	}
+
+	//Returns the number of colors of a named board.
+	public static int colors(String name) {
+		return Integer.parseInt(name.substring(name.indexOf('-') + 1));
+	}
+
+	//Returns a named board in the usual left-aligned 2D format.
+	public static int[][] board(String name) {
+		int size = size(name);
+		int[][] board = new int[size][size];
+		for (int i = 0; i < size; i++) {
+			for (int j = 0; j <= i; j++) {
+				board[i][j] = 1;
+			}
+		}
+		int[] hole = Symmetry.forSize(size).holeRepresentatives()[0];
+		board[hole[1]][hole[0]] = 0;
+		return board;
+	}
+
+	//Returns a board partway through the solution of a named board, after half of its jumps.
+	//Gives the move benchmarks a mix of pegs, colors and holes, rather than a nearly full board.
+	public static PackedBoard midgame(String name) throws java.io.IOException {
+		SolverEngine engine = new SolverEngine(size(name), colors(name), false);
+		PackedBoard board = new PackedBoard(board(name), colors(name));
+		int[] solution = engine.solve(board);
+		JumpTable jumps = engine.getJumps();
+		for (int i = 0; i < solution.length / 2; i++) {
+			board.applyMove(jumps.start[solution[i]], jumps.jumped[solution[i]], jumps.end[solution[i]]);
+		}
+		return board;
+	}
+}
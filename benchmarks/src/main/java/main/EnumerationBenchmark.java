@@ -0,0 +1,72 @@
+package main;
+
+//Necessary imports
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+
+//Producing the starting boards of the all-boards mode: Main.generateBoards, which holds every board in
+//memory, against streaming them from a BoardEnumeration, and the single permuteLexically step both rely on.
+//Element counts are those of T5 and T6 boards less the starting vacancy.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class EnumerationBenchmark {
+
+	@Param({"14", "20"})
+	public int elements;
+
+	//Board advanced by permuteLexically, restarted from the first board of its level when it runs out.
+	private int[] permutation;
+	private int[] first;
+
+	@Setup
+	public void setUp() {
+		first = new int[elements];
+		Arrays.fill(first, 1);
+		Arrays.fill(first, elements / 2, elements, 2);
+		permutation = first.clone();
+	}
+
+	@Benchmark
+	public int generateBoards() {
+		Main.boards.clear();
+		Main.generateBoards(elements);
+		int count = Main.boards.size();
+		Main.boards.clear();
+		return count;
+	}
+
+	@Benchmark
+	public long enumerateBoards() {
+		long sum = 0;
+		for (int[] board : new BoardEnumeration(elements)) {
+			sum += board[0];
+		}
+		return sum;
+	}
+
+	@Benchmark
+	@OutputTimeUnit(TimeUnit.NANOSECONDS)
+	public int[] permuteLexically() {
+		if (!Main.permuteLexically(permutation)) {
+			System.arraycopy(first, 0, permutation, 0, elements);
+		}
+		return permutation;
+	}
+}
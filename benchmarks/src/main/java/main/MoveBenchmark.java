@@ -0,0 +1,122 @@
+package main;
+
+//Necessary imports
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+
+//The operations the search performs at every node, on a board partway through its solution:
+//checking every jump (isValidMove), playing and undoing every valid jump (applyMove), looking up every
+//board one jump away in a table of searched boards (containsCopy), and copying the board (copyBoard).
+//Each benchmark covers every jump of the board, so scores are per node rather than per jump.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MoveBenchmark {
+
+	@Param({"T5-3", "T5-5", "T6-3", "T6-5"})
+	public String board;
+
+	private SolverEngine engine;
+
+	private JumpTable jumps;
+
+	private PackedBoard midgame;
+
+	private int[][] array;
+
+	private MultiboardSolver multiboard;
+
+	//Symmetric keys of every board searched while solving the starting board.
+	private TranspositionTable searched;
+
+	private long[] key = new long[2];
+
+	@Setup
+	public void setUp() throws IOException {
+		engine = new SolverEngine(BenchmarkBoards.size(board), BenchmarkBoards.colors(board), false);
+		jumps = engine.getJumps();
+		midgame = BenchmarkBoards.midgame(board);
+		array = midgame.toArray();
+
+		engine.solve(new PackedBoard(BenchmarkBoards.board(board), BenchmarkBoards.colors(board)));
+		long[] keys = engine.getSearchedBoards();
+		searched = new TranspositionTable(keys.length / 2);
+		for (int k = 0; k < keys.length; k += 2) {
+			searched.add(keys[k], keys[k + 1]);
+		}
+
+		multiboard = new MultiboardSolver(BenchmarkBoards.board("T" + BenchmarkBoards.size(board) + "-3"));
+	}
+
+	@Benchmark
+	public int isValidMove() {
+		int valid = 0;
+		for (int jump = 0; jump < jumps.count; jump++) {
+			if (engine.isValidMove(midgame, jump)) {
+				valid++;
+			}
+		}
+		return valid;
+	}
+
+	@Benchmark
+	public long applyMove() {
+		long sum = 0;
+		for (int jump = 0; jump < jumps.count; jump++) {
+			if (engine.isValidMove(midgame, jump)) {
+				midgame.applyMove(jumps.start[jump], jumps.jumped[jump], jumps.end[jump]);
+				sum += midgame.getLow() ^ midgame.getHigh();
+				midgame.undoMove(jumps.start[jump], jumps.jumped[jump], jumps.end[jump]);
+			}
+		}
+		return sum;
+	}
+
+	@Benchmark
+	public int containsCopy() {
+		int found = 0;
+		for (int jump = 0; jump < jumps.count; jump++) {
+			if (engine.isValidMove(midgame, jump)) {
+				midgame.applyMove(jumps.start[jump], jumps.jumped[jump], jumps.end[jump]);
+				engine.canonicalize(midgame, key);
+				if (searched.contains(key[0], key[1])) {
+					found++;
+				}
+				midgame.undoMove(jumps.start[jump], jumps.jumped[jump], jumps.end[jump]);
+			}
+		}
+		return found;
+	}
+
+	@Benchmark
+	public boolean anyPegsLeft() {
+		return engine.anyPegsLeft(midgame);
+	}
+
+	@Benchmark
+	public PackedBoard copyBoard() {
+		return midgame.copy();
+	}
+
+	//The 2D copy the solvers still use for printing and animating solutions.
+	@Benchmark
+	public int[][] copyBoardArray() {
+		return multiboard.copyBoard(array);
+	}
+}
@@ -0,0 +1,35 @@
+package main;
+
+//Necessary imports
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+
+//Whole solves as in SearchBenchmark, through MultiboardSolver, which also builds the solution path in its
+//printed form. MultiboardSolver only handles three colors, so only the three-color boards are run.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MultiboardBenchmark {
+
+	@Param({"T5-3", "T6-3"})
+	public String board;
+
+	@Benchmark
+	public Object multiboardSolve() {
+		return new MultiboardSolver(BenchmarkBoards.board(board)).getSolution();
+	}
+}
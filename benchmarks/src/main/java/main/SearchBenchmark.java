@@ -0,0 +1,48 @@
+package main;
+
+//Necessary imports
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+
+//Whole solves: the depth-first search of SolverEngine (the old recursiveSolve), from the starting board
+//to a solution, with a fresh table of searched boards each time.
+//Solves through MultiboardSolver, which only handles three colors, are in MultiboardBenchmark.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SearchBenchmark {
+
+	@Param({"T5-3", "T5-5", "T6-3", "T6-5"})
+	public String board;
+
+	private SolverEngine engine;
+
+	private PackedBoard start;
+
+	@Setup
+	public void setUp() {
+		engine = new SolverEngine(BenchmarkBoards.size(board), BenchmarkBoards.colors(board), false);
+		start = new PackedBoard(BenchmarkBoards.board(board), BenchmarkBoards.colors(board));
+	}
+
+	@Benchmark
+	public int[] solve() throws IOException {
+		return engine.solve(start);
+	}
+}
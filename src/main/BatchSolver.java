@@ -0,0 +1,227 @@
+package main;
+
+//Necessary imports
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+
+//Solves many independent boards in three colors across a pool of threads.
+//Used for the all-boards mode in Main. Every board gets its own MultiboardSolver, so workers share no search state.
+//Results are written in the same order the boards were submitted, through the file's output sink (see OutputSink),
+//so the output file matches what solving the boards one at a time would have produced, and writing to disk
+//happens on the sink's thread while the next results are awaited.
+//Results can instead be written in the compact binary format of ResultWriter (see ResultReader to turn them back
+//into text), followed by an index for looking up single boards (see ResultIndex).
+//Progress can be saved every so often to a checkpoint (see Checkpoint), from which a sweep that died is resumed.
+public class BatchSolver {
+
+	//Number of boards queued per thread ahead of the one being written out.
+	//Bounds memory while keeping every thread busy when one board takes much longer than its neighbours.
+	private static final int BOARDS_PER_THREAD = 16;
+
+	//Nanoseconds per second, for the time between checkpoints.
+	private static final long NANOS_PER_SECOND = 1_000_000_000L;
+
+	//Size of the boards to solve
+	private int boardSize;
+
+	//Name of file to output to
+	private String fileName;
+
+	//Number of worker threads
+	private int threads;
+
+	//Whether to skip boards that are a rotation or reflection of another board with the same vacancy.
+	private boolean symmetryReduced;
+
+	//Persistent tablebase shared by every board, or null to solve without one.
+	private Tablebase tablebase;
+
+	//Whether to write results in the binary format of ResultWriter rather than as text.
+	private boolean binary;
+
+	//File to save progress to and resume from, or null to always start from the first board.
+	private Path checkpointFile;
+
+	//Seconds between checkpoints.
+	private long checkpointSeconds;
+
+
+	//Parameterized constructor
+	//Takes in the board size, the file name for solutions and the number of threads to solve with.
+	public BatchSolver(int boardSize, String fileName, int threads) {
+		this(boardSize, fileName, threads, false);
+	}
+
+	//Parameterized constructor
+	//As above, but when symmetryReduced is set only the canonical board of each set of equivalent boards
+	//is solved (see Symmetry).
+	public BatchSolver(int boardSize, String fileName, int threads, boolean symmetryReduced) {
+		this(boardSize, fileName, threads, symmetryReduced, null);
+	}
+
+	//Parameterized constructor
+	//As above, with every board consulting and adding to a persistent tablebase (see Tablebase).
+	//Positions repeat heavily between boards of a sweep, so later boards are mostly answered from earlier ones.
+	public BatchSolver(int boardSize, String fileName, int threads, boolean symmetryReduced, Tablebase tablebase) {
+		this(boardSize, fileName, threads, symmetryReduced, tablebase, false);
+	}
+
+	//Parameterized constructor
+	//As above, writing results in the compact binary format of ResultWriter when binary is set, and indexing them
+	//once every board is solved.
+	public BatchSolver(int boardSize, String fileName, int threads, boolean symmetryReduced, Tablebase tablebase, boolean binary) {
+		this(boardSize, fileName, threads, symmetryReduced, tablebase, binary, null, 0);
+	}
+
+	//Parameterized constructor
+	//As above, saving progress to a checkpoint file every given number of seconds. If the checkpoint file already
+	//exists, the sweep resumes from it: the output is cut back to where the checkpoint was saved, and boards
+	//already written are skipped. The checkpoint is deleted once the sweep is finished.
+	//Boards must then come from a BoardEnumeration, so the sweep can restart partway through.
+	public BatchSolver(int boardSize, String fileName, int threads, boolean symmetryReduced, Tablebase tablebase, boolean binary, Path checkpointFile, long checkpointSeconds) {
+		this.boardSize = boardSize;
+		this.fileName = fileName;
+		this.threads = threads;
+		this.symmetryReduced = symmetryReduced;
+		this.tablebase = tablebase;
+		this.binary = binary;
+		this.checkpointFile = checkpointFile;
+		this.checkpointSeconds = checkpointSeconds;
+	}
+
+	//Solves every board for each given starting vacancy, appending the results to the output file.
+	//Holes are the outer loop and boards the inner loop, as in Main. Boards are read one at a time,
+	//so they can be streamed from a BoardEnumeration rather than held in memory.
+	//Returns once every result is written and flushed to the file.
+	public void solveAll(int[][] holes, Iterable<int[]> boards) throws IOException {
+		Path output = Paths.get(fileName);
+		Checkpoint checkpoint = null;
+		if (checkpointFile != null) {
+			if (!(boards instanceof BoardEnumeration)) {
+				throw new IllegalArgumentException("Only boards from a BoardEnumeration can be resumed from a checkpoint.");
+			}
+			checkpoint = Checkpoint.open(checkpointFile, boardSize, holes, (BoardEnumeration) boards, symmetryReduced, binary, output);
+			checkpoint.truncate(output);
+			checkpoint.save(checkpoint.getHole(), checkpoint.getRank(), checkpoint.getOutputLength());
+		}
+
+		if (binary) {
+			try (ResultWriter results = ResultWriter.open(output, boardSize, 3)) {
+				solveAll(holes, boards, board -> results.encode(board, new MultiboardSolver(board, tablebase).getSolutionJumps()),
+						results::writeRecord, results::flush, checkpoint);
+			}
+			ResultIndex.build(output, ResultIndex.fileName(output));
+		} else {
+			OutputSink sink = OutputSink.forFile(fileName);
+			solveAll(holes, boards, board -> new MultiboardSolver(board, tablebase).getResult(), sink::write, sink::flush, checkpoint);
+			sink.flush();
+		}
+
+		if (checkpoint != null) {
+			checkpoint.delete();
+		}
+	}
+
+	//Helper method to solve every board across the pool, handing each board's result to the output in the order
+	//the boards were submitted. With a checkpoint, starts from where it was saved and saves it again every so often.
+	private <T> void solveAll(int[][] holes, Iterable<int[]> boards, Solve<T> solve, Output<T> output, Flush flush, Checkpoint checkpoint) throws IOException {
+		ExecutorService pool = Executors.newFixedThreadPool(threads, task -> new Thread(task, "batch-solver"));
+		ArrayDeque<Future<T>> pending = new ArrayDeque<>();
+		int window = threads * BOARDS_PER_THREAD;
+		Symmetry symmetry = Symmetry.forSize(boardSize);
+
+		//Vacancy and rank just past each board waiting to be written, and when the checkpoint was last saved.
+		ArrayDeque<long[]> positions = new ArrayDeque<>();
+		long saved = System.nanoTime();
+
+		try {
+			for (int h = (checkpoint == null) ? 0 : checkpoint.getHole(); h < holes.length; h++) {
+				int[] hole = holes[h];
+				Iterable<int[]> range = boards;
+				long rank = 0;
+				if (checkpoint != null) {
+					BoardEnumeration enumeration = (BoardEnumeration) boards;
+					rank = (h == checkpoint.getHole()) ? checkpoint.getRank() : enumeration.getFrom();
+					range = enumeration.startingAt(rank);
+				}
+
+				for (int[] board : range) {
+					rank++;
+					if (symmetryReduced && !symmetry.isCanonical(board, hole)) {
+						continue;
+					}
+					int[][] newBoard = Main.populateBoard(boardSize, board, hole);
+					pending.add(pool.submit((Callable<T>) () -> solve.apply(newBoard)));
+					positions.add(new long[] {h, rank});
+
+					if (pending.size() >= window) {
+						saved = write(pending, positions, output, flush, checkpoint, saved);
+					}
+				}
+			}
+
+			while (!pending.isEmpty()) {
+				saved = write(pending, positions, output, flush, checkpoint, saved);
+			}
+		} finally {
+			pool.shutdownNow();
+		}
+	}
+
+	//Helper method to write out the oldest result waiting, then save the checkpoint if it is due.
+	//Takes and returns the time the checkpoint was last saved.
+	private <T> long write(ArrayDeque<Future<T>> pending, ArrayDeque<long[]> positions, Output<T> output, Flush flush, Checkpoint checkpoint, long saved) throws IOException {
+		output.accept(await(pending.poll()));
+		long[] position = positions.poll();
+
+		if (checkpoint == null || System.nanoTime() - saved < checkpointSeconds * NANOS_PER_SECOND) {
+			return saved;
+		}
+		flush.run();
+		checkpoint.save((int) position[0], position[1], Files.size(Paths.get(fileName)));
+		return System.nanoTime();
+	}
+
+	//Helper method to wait for a board's result, passing on anything thrown while solving it.
+	private <T> T await(Future<T> result) throws IOException {
+		try {
+			return result.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("Interrupted while waiting for a board to be solved.");
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof RuntimeException) {
+				throw (RuntimeException) e.getCause();
+			}
+			if (e.getCause() instanceof Error) {
+				throw (Error) e.getCause();
+			}
+			throw new IOException("Failed to solve a board.", e.getCause());
+		}
+	}
+
+	//Solves a board, in the usual left-aligned 2D format, giving its result.
+	private interface Solve<T> {
+		T apply(int[][] board);
+	}
+
+	//Takes the result of a board, in order.
+	private interface Output<T> {
+		void accept(T result) throws IOException;
+	}
+
+	//Writes every result taken so far out to the file.
+	private interface Flush {
+		void run() throws IOException;
+	}
+}
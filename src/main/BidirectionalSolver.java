@@ -0,0 +1,70 @@
+package main;
+
+//Necessary imports
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+
+//Bidirectional version of the MulticolorSolver search, for boards whose forward search alone takes too long.
+//The backward half is a Frontier: every solvable board with at most a given number of pegs, found once by searching
+//backward from the one-peg boards. The forward search (see SolverEngine) then stops at the first board with that
+//few pegs, which either meets the frontier and is solved, or misses it and cannot be solved, so the forward search
+//never goes deeper than the frontier reaches. The frontier only depends on the configuration, so it is built once
+//and shared by every board this solver solves.
+public class BidirectionalSolver {
+
+	private final JumpTable jumps;
+
+	//The forward search, and rules of the search (see SolverEngine).
+	private final SolverEngine engine;
+
+	//The backward search, met by every solve.
+	private final Frontier frontier;
+
+
+	//Parameterized constructor
+	//Takes in the board size, number of colors, jump restriction and the most pegs on a board of the frontier.
+	public BidirectionalSolver(int size, int numColors, boolean restrictToNJumps, int pegs) {
+		this(new SolverEngine(size, numColors, restrictToNJumps), pegs);
+	}
+
+	//Parameterized constructor
+	//Searches forward with an engine (and its tablebase, if any), which must not be shared with another solver,
+	//and builds a frontier of at most the given number of pegs under its rules.
+	public BidirectionalSolver(SolverEngine engine, int pegs) {
+		this.jumps = engine.getJumps();
+		this.engine = engine;
+		this.frontier = new Frontier(engine, pegs);
+	}
+
+	//Searches a board from both ends.
+	//Returns the solution path, or null if the board cannot be solved.
+	//The result is added to the engine's tablebase, if there is one.
+	public List<Move> solve(int[][] board) throws IOException {
+		int[] found = engine.solve(new PackedBoard(board, engine.getNumColors()), frontier);
+		if (found == null) {
+			return null;
+		}
+
+		List<Move> path = new ArrayList<>(found.length);
+		for (int jump : found) {
+			path.add(jumps.getMove(jump));
+		}
+		return path;
+	}
+
+	//Returns the measurements of the latest solve.
+	public SearchStats getStats() {
+		return engine.getStats();
+	}
+
+	//Returns the number of boards searched forward by the latest solve.
+	public int getBoardsSearched() {
+		return engine.getBoardsSearched();
+	}
+
+	public Frontier getFrontier() {
+		return frontier;
+	}
+}
@@ -0,0 +1,191 @@
+package main;
+
+//Necessary imports
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+
+//Lazy version of Main.generateBoards: produces the same boards in the same order, one at a time.
+//Boards are the 1D arrays of board elements (1's and 2's) that Main.populateBoard turns into a board.
+//Every board has a rank, its position in the full enumeration: first all boards with a single 2, in
+//lexicographical order, then all boards with two 2's, and so on. A board can be rebuilt from its rank
+//directly, so the enumeration can be split into rank ranges for parallel workers, and only the board
+//currently being produced is ever held in memory.
+public class BoardEnumeration implements Iterable<int[]> {
+
+	//Number of elements per board (number of holes minus the starting vacancy)
+	private final int size;
+
+	//Range of ranks covered, from (inclusive) to (exclusive)
+	private final long from;
+	private final long to;
+
+	//Binomial coefficients, choose[n][k], up to the number of elements
+	private final long[][] choose;
+
+
+	//Parameterized constructor
+	//Covers every board with the given number of elements.
+	public BoardEnumeration(int size) {
+		this(size, 0, total(size));
+	}
+
+	//Parameterized constructor
+	//Covers the boards ranked from (inclusive) up to to (exclusive).
+	public BoardEnumeration(int size, long from, long to) {
+		if (size < 1 || size > 62) {
+			throw new IllegalArgumentException("Cannot enumerate boards of " + size + " elements.");
+		}
+		if (from < 0 || to > total(size) || from > to) {
+			throw new IllegalArgumentException("Rank range [" + from + ", " + to + ") is outside the enumeration.");
+		}
+		this.size = size;
+		this.from = from;
+		this.to = to;
+
+		choose = new long[size + 1][size + 1];
+		for (int n = 0; n <= size; n++) {
+			choose[n][0] = 1;
+			for (int k = 1; k <= n; k++) {
+				choose[n][k] = choose[n - 1][k - 1] + choose[n - 1][k];
+			}
+		}
+	}
+
+	//Returns the number of boards with a given number of elements: every arrangement of 1's and 2's
+	//with at least one 2.
+	public static long total(int size) {
+		return (1L << size) - 1;
+	}
+
+	//Returns the number of boards in this range.
+	public long count() {
+		return to - from;
+	}
+
+	//Returns the number of elements per board.
+	public int getSize() {
+		return size;
+	}
+
+	public long getFrom() {
+		return from;
+	}
+
+	public long getTo() {
+		return to;
+	}
+
+	//Returns the rest of this range, from a given rank on.
+	public BoardEnumeration startingAt(long rank) {
+		return new BoardEnumeration(size, rank, to);
+	}
+
+	//Rebuilds the board with a given rank.
+	public int[] unrank(long rank) {
+		//Skip whole levels (boards with the same number of 2's) until the rank falls inside one.
+		int twos = 1;
+		while (rank >= choose[size][twos]) {
+			rank -= choose[size][twos];
+			twos++;
+		}
+
+		//Within a level, a board starting with 1 comes before every board starting with 2.
+		int[] board = new int[size];
+		for (int i = 0; i < size; i++) {
+			long startingWithOne = choose[size - i - 1][twos];
+			if (rank < startingWithOne) {
+				board[i] = 1;
+			} else {
+				board[i] = 2;
+				rank -= startingWithOne;
+				twos--;
+			}
+		}
+		return board;
+	}
+
+	//Splits the range into (at most) the given number of contiguous, near-equal ranges.
+	public BoardEnumeration[] split(int parts) {
+		parts = (int) Math.max(1, Math.min(parts, count()));
+		BoardEnumeration[] ranges = new BoardEnumeration[parts];
+		for (int p = 0; p < parts; p++) {
+			long start = from + count() * p / parts;
+			long end = from + count() * (p + 1) / parts;
+			ranges[p] = new BoardEnumeration(size, start, end);
+		}
+		return ranges;
+	}
+
+	@Override
+	public Iterator<int[]> iterator() {
+		return Spliterators.iterator(spliterator());
+	}
+
+	@Override
+	public Spliterator<int[]> spliterator() {
+		return new BoardSpliterator(from, to);
+	}
+
+	//Returns the boards as a stream, which splits by rank range when run in parallel.
+	public Stream<int[]> stream(boolean parallel) {
+		return StreamSupport.stream(spliterator(), parallel);
+	}
+
+
+	//Walks a range of ranks. The first board is rebuilt from its rank, and every later one is the
+	//next lexicographical permutation of the last, moving on to the next level when a level runs out.
+	private class BoardSpliterator implements Spliterator<int[]> {
+
+		private long next;
+		private long end;
+
+		//The last board produced, or null if none yet
+		private int[] current;
+
+		BoardSpliterator(long next, long end) {
+			this.next = next;
+			this.end = end;
+		}
+
+		@Override
+		public boolean tryAdvance(Consumer<? super int[]> action) {
+			if (next >= end) {
+				return false;
+			}
+			if (current == null || !Main.permuteLexically(current)) {
+				current = unrank(next);
+			}
+			next++;
+			action.accept(Arrays.copyOf(current, current.length));
+			return true;
+		}
+
+		@Override
+		public Spliterator<int[]> trySplit() {
+			long middle = next + (end - next) / 2;
+			if (middle == next) {
+				return null;
+			}
+			BoardSpliterator prefix = new BoardSpliterator(next, middle);
+			next = middle;
+			current = null;
+			return prefix;
+		}
+
+		@Override
+		public long estimateSize() {
+			return end - next;
+		}
+
+		@Override
+		public int characteristics() {
+			return ORDERED | SIZED | SUBSIZED | NONNULL | IMMUTABLE;
+		}
+	}
+}
@@ -0,0 +1,154 @@
+package main;
+
+//Necessary imports
+import java.util.HashMap;
+import java.util.Map;
+
+
+//Maps a packed board to a canonical key shared by all of its rotations and reflections, so the solvers'
+//tables of previously searched boards hold one entry per set of symmetric boards.
+//Symmetric boards are equally solvable (a solution of one, rotated or reflected, solves the other),
+//so a board whose mirror image has already been searched does not need to be searched again.
+//The key is the smallest of the six packed images of the board. Images are built from precomputed tables:
+//each word is cut into chunks of whole holes, at most 8 bits wide, and every value of every chunk is
+//mapped to the words it contributes under each symmetry, so an image costs a few lookups per word.
+public class CanonicalKeys {
+
+	//Widest chunk looked up at once, in bits.
+	private static final int CHUNK_BITS = 8;
+
+	//Tables built so far, keyed by board size and number of colors.
+	private static final Map<Long, CanonicalKeys> cache = new HashMap<>();
+
+	//Number of symmetries other than the identity.
+	private final int images;
+
+	//Number of chunks, and the word, position and width of each.
+	private final int chunks;
+	private final boolean[] chunkInHigh;
+	private final int[] chunkShift;
+	private final long[] chunkMask;
+
+	//Entries per chunk in the tables below.
+	private final int entries;
+
+	//lowImage[g][c * entries + v] and highImage[...] are the words that chunk c, holding value v,
+	//contributes to the image of the board under symmetry g + 1. Null if there are too many colors for
+	//tables, in which case images are built one hole at a time from symmetry.
+	private final long[][] lowImage;
+	private final long[][] highImage;
+
+	private final Symmetry symmetry;
+	private final int numColors;
+
+
+	//Returns the (shared) tables for a given board size and number of colors, building them if needed.
+	public static synchronized CanonicalKeys forBoard(int size, int numColors) {
+		return cache.computeIfAbsent(((long) size << 32) | numColors, k -> new CanonicalKeys(size, numColors));
+	}
+
+	//Parameterized constructor
+	private CanonicalKeys(int size, int numColors) {
+		PackedBoard board = new PackedBoard(size, numColors);
+		this.symmetry = Symmetry.forSize(size);
+		this.numColors = numColors;
+		this.images = symmetry.images.length - 1;
+		int bits = Math.max(1, 32 - Integer.numberOfLeadingZeros(numColors - 1));
+
+		int holes = board.getHoles();
+		int perWord = 64 / bits;
+		int perChunk = Math.max(1, CHUNK_BITS / bits);
+
+		//Chunks never straddle the two words, since holes don't.
+		int lowHoles = Math.min(holes, perWord);
+		int highHoles = holes - lowHoles;
+		int lowChunks = (lowHoles + perChunk - 1) / perChunk;
+		this.chunks = lowChunks + (highHoles + perChunk - 1) / perChunk;
+		this.chunkInHigh = new boolean[chunks];
+		this.chunkShift = new int[chunks];
+		this.chunkMask = new long[chunks];
+		int[] firstHole = new int[chunks];
+		int[] holeCount = new int[chunks];
+
+		for (int c = 0; c < chunks; c++) {
+			boolean inHigh = c >= lowChunks;
+			int first = inHigh ? lowHoles + (c - lowChunks) * perChunk : c * perChunk;
+			int count = Math.min(perChunk, (inHigh ? holes : lowHoles) - first);
+			chunkInHigh[c] = inHigh;
+			chunkShift[c] = (inHigh ? first - perWord : first) * bits;
+			chunkMask[c] = (1L << (count * bits)) - 1;
+			firstHole[c] = first;
+			holeCount[c] = count;
+		}
+
+		if (bits > CHUNK_BITS) {
+			this.entries = 0;
+			this.lowImage = null;
+			this.highImage = null;
+			return;
+		}
+
+		this.entries = 1 << (perChunk * bits);
+		this.lowImage = new long[images][chunks * entries];
+		this.highImage = new long[images][chunks * entries];
+
+		for (int g = 0; g < images; g++) {
+			int[] image = symmetry.images[g + 1];
+			for (int c = 0; c < chunks; c++) {
+				for (int v = 0; v <= chunkMask[c]; v++) {
+					//Place each hole of the chunk at its image on an empty board.
+					board.restore(0, 0);
+					for (int k = 0; k < holeCount[c]; k++) {
+						board.set(image[firstHole[c] + k], (v >>> (k * bits)) & ((1 << bits) - 1));
+					}
+					lowImage[g][c * entries + v] = board.getLow();
+					highImage[g][c * entries + v] = board.getHigh();
+				}
+			}
+		}
+	}
+
+	//Writes the canonical key of a packed board into key[0] (low word) and key[1] (high word).
+	//Returns the symmetry (an index into Symmetry.images) that carries the board onto its key.
+	public int canonicalize(long low, long high, long[] key) {
+		long bestLow = low;
+		long bestHigh = high;
+		int best = 0;
+
+		for (int g = 0; g < images; g++) {
+			long imageLow = 0;
+			long imageHigh = 0;
+
+			if (lowImage != null) {
+				long[] lows = lowImage[g];
+				long[] highs = highImage[g];
+				for (int c = 0; c < chunks; c++) {
+					long word = chunkInHigh[c] ? high : low;
+					int entry = c * entries + (int) ((word >>> chunkShift[c]) & chunkMask[c]);
+					imageLow |= lows[entry];
+					imageHigh |= highs[entry];
+				}
+			} else {
+				PackedBoard board = new PackedBoard(symmetry.size, numColors, low, high);
+				PackedBoard mapped = new PackedBoard(symmetry.size, numColors);
+				int[] image = symmetry.images[g + 1];
+				for (int h = 0; h < symmetry.holes; h++) {
+					mapped.set(image[h], board.get(h));
+				}
+				imageLow = mapped.getLow();
+				imageHigh = mapped.getHigh();
+			}
+
+			int order = Long.compareUnsigned(imageHigh, bestHigh);
+			if (order < 0 || (order == 0 && Long.compareUnsigned(imageLow, bestLow) < 0)) {
+				bestLow = imageLow;
+				bestHigh = imageHigh;
+				best = g + 1;
+			}
+		}
+
+		key[0] = bestLow;
+		key[1] = bestHigh;
+		return best;
+	}
+}
@@ -0,0 +1,173 @@
+package main;
+
+//Necessary imports
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+
+//Progress of an all-boards sweep (see BatchSolver), saved now and then so that a sweep that dies can pick up
+//close to where it stopped rather than from the first board.
+//Results are written in the order the boards are enumerated, so progress is a cursor: the starting vacancy being
+//worked through, the rank (see BoardEnumeration) of the first board whose result is not yet written, and the
+//length of the output file once every earlier result is in it. On resuming, the output is cut back to that length,
+//dropping any results written after the checkpoint, so no board appears twice.
+//The file also records which sweep it belongs to, and is never used for another.
+//Each save writes a new file and renames it over the old one, so a crash leaves either the old checkpoint or the
+//new one, never a mix.
+public class Checkpoint {
+
+	//"PEGC"
+	private static final int MAGIC = 0x50454743;
+
+	private static final int VERSION = 1;
+
+	private final Path file;
+
+	//The sweep: board size, starting vacancies, range of board ranks, and how results are written.
+	private final int boardSize;
+	private final int[][] holes;
+	private final long from;
+	private final long to;
+	private final boolean symmetryReduced;
+	private final boolean binary;
+
+	//Index in holes of the vacancy being worked through, rank of the next board whose result is to be written,
+	//and length of the output file up to it.
+	private int hole;
+	private long rank;
+	private long outputLength;
+
+	//Whether the checkpoint was read from an earlier run.
+	private boolean resumed;
+
+
+	//Opens the checkpoint of a sweep, reading it if the file exists and starting afresh if not.
+	//Throws an IOException if the file holds the checkpoint of another sweep.
+	public static Checkpoint open(Path file, int boardSize, int[][] holes, BoardEnumeration boards, boolean symmetryReduced, boolean binary, Path output) throws IOException {
+		Checkpoint checkpoint = new Checkpoint(file, boardSize, holes, boards.getFrom(), boards.getTo(), symmetryReduced, binary);
+		if (Files.exists(file)) {
+			checkpoint.read();
+		} else {
+			checkpoint.outputLength = Files.exists(output) ? Files.size(output) : 0;
+		}
+		return checkpoint;
+	}
+
+	//Parameterized constructor
+	private Checkpoint(Path file, int boardSize, int[][] holes, long from, long to, boolean symmetryReduced, boolean binary) {
+		this.file = file;
+		this.boardSize = boardSize;
+		this.holes = holes;
+		this.from = from;
+		this.to = to;
+		this.symmetryReduced = symmetryReduced;
+		this.binary = binary;
+		this.rank = from;
+	}
+
+	//Cuts the output file back to its length at the checkpoint, dropping anything written after it.
+	//Throws an IOException if the file is shorter than that, since results recorded as written have been lost.
+	public void truncate(Path output) throws IOException {
+		long length = Files.exists(output) ? Files.size(output) : 0;
+		if (length < outputLength) {
+			throw new IOException(output + " is shorter (" + length + " bytes) than at the checkpoint in " + file + " (" + outputLength + " bytes).");
+		}
+		if (length > outputLength) {
+			try (FileChannel channel = FileChannel.open(output, StandardOpenOption.WRITE)) {
+				channel.truncate(outputLength);
+			}
+		}
+	}
+
+	//Records that every board before a given rank, for a given vacancy, has its result in the output,
+	//and saves the checkpoint.
+	public void save(int hole, long rank, long outputLength) throws IOException {
+		this.hole = hole;
+		this.rank = rank;
+		this.outputLength = outputLength;
+
+		Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+		try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+			DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel)));
+			out.writeInt(MAGIC);
+			out.writeInt(VERSION);
+			out.writeInt(boardSize);
+			out.writeLong(from);
+			out.writeLong(to);
+			out.writeBoolean(symmetryReduced);
+			out.writeBoolean(binary);
+			out.writeInt(holes.length);
+			for (int[] vacancy : holes) {
+				out.writeInt(vacancy[0]);
+				out.writeInt(vacancy[1]);
+			}
+			out.writeInt(hole);
+			out.writeLong(rank);
+			out.writeLong(outputLength);
+			out.flush();
+			channel.force(true);
+		}
+
+		try {
+			Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE);
+		} catch (AtomicMoveNotSupportedException e) {
+			Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+		}
+	}
+
+	//Deletes the checkpoint, once the sweep is finished.
+	public void delete() throws IOException {
+		Files.deleteIfExists(file);
+	}
+
+	//Returns the index of the vacancy being worked through.
+	public int getHole() {
+		return hole;
+	}
+
+	//Returns the rank of the next board whose result is to be written.
+	public long getRank() {
+		return rank;
+	}
+
+	//Returns the length of the output file up to the checkpoint.
+	public long getOutputLength() {
+		return outputLength;
+	}
+
+	//Checks whether the checkpoint was read from an earlier run, rather than started afresh.
+	public boolean isResumed() {
+		return resumed;
+	}
+
+	//Helper method to read the checkpoint from its file, checking that it belongs to this sweep.
+	private void read() throws IOException {
+		try (DataInputStream in = new DataInputStream(Files.newInputStream(file))) {
+			if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+				throw new IOException(file + " is not a checkpoint, or was written by another version.");
+			}
+			boolean same = in.readInt() == boardSize && in.readLong() == from && in.readLong() == to
+					&& in.readBoolean() == symmetryReduced && in.readBoolean() == binary && in.readInt() == holes.length;
+			for (int h = 0; same && h < holes.length; h++) {
+				same = in.readInt() == holes[h][0] && in.readInt() == holes[h][1];
+			}
+			if (!same) {
+				throw new IOException(file + " is the checkpoint of another sweep.");
+			}
+
+			hole = in.readInt();
+			rank = in.readLong();
+			outputLength = in.readLong();
+			resumed = true;
+		}
+	}
+}
@@ -0,0 +1,89 @@
+package main;
+
+
+//Thread-safe version of TranspositionTable, shared by every thread of a parallel search.
+//The table is split into independently locked segments, chosen by the top bits of each key's hash,
+//so threads only contend when they touch the same segment at the same time.
+public class ConcurrentTranspositionTable {
+
+	//Number of segments. A power of two, well above the number of threads we expect to run.
+	private static final int SEGMENT_BITS = 8;
+
+	//Starting size of each segment; segments grow on their own.
+	private static final int SEGMENT_CAPACITY = 64;
+
+	private final TranspositionTable[] segments;
+
+
+	//Default constructor
+	public ConcurrentTranspositionTable() {
+		segments = new TranspositionTable[1 << SEGMENT_BITS];
+		for (int i = 0; i < segments.length; i++) {
+			segments[i] = new TranspositionTable(SEGMENT_CAPACITY);
+		}
+	}
+
+	//Adds a board to the table.
+	//Returns true if the board was not already present, so exactly one thread "claims" each board.
+	public boolean add(long low, long high) {
+		TranspositionTable segment = segmentFor(low, high);
+		synchronized (segment) {
+			return segment.add(low, high);
+		}
+	}
+
+	//Checks whether a board has been added to the table.
+	public boolean contains(long low, long high) {
+		TranspositionTable segment = segmentFor(low, high);
+		synchronized (segment) {
+			return segment.contains(low, high);
+		}
+	}
+
+	//Returns the number of boards stored.
+	public int size() {
+		int size = 0;
+		for (TranspositionTable segment : segments) {
+			synchronized (segment) {
+				size += segment.size();
+			}
+		}
+		return size;
+	}
+
+	//Returns every stored key, as alternating low and high words.
+	//Only meant to be called once no other thread is adding boards.
+	public long[] toArray() {
+		long[][] parts = new long[segments.length][];
+		int length = 0;
+		for (int i = 0; i < segments.length; i++) {
+			synchronized (segments[i]) {
+				parts[i] = segments[i].toArray();
+			}
+			length += parts[i].length;
+		}
+
+		long[] keys = new long[length];
+		int k = 0;
+		for (long[] part : parts) {
+			System.arraycopy(part, 0, keys, k, part.length);
+			k += part.length;
+		}
+		return keys;
+	}
+
+	//Removes every board from the table.
+	public void clear() {
+		for (TranspositionTable segment : segments) {
+			synchronized (segment) {
+				segment.clear();
+			}
+		}
+	}
+
+	//Helper method to pick the segment for a key.
+	//Uses the top bits of the hash; each segment indexes its slots with the low bits.
+	private TranspositionTable segmentFor(long low, long high) {
+		return segments[TranspositionTable.hash(low, high) >>> (32 - SEGMENT_BITS)];
+	}
+}
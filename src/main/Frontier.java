@@ -0,0 +1,245 @@
+package main;
+
+//Necessary imports
+import java.util.Arrays;
+
+
+//The backward half of the bidirectional search (see BidirectionalSolver): every board with at most a given
+//number of pegs that can be solved, found by searching backward from the one-peg boards with reverse jumps.
+//No jump ever adds a peg, so a board with p pegs that can be solved has a solution that never has more than
+//p pegs on the board. Searching backward from every one-peg board, only through boards of at most that many pegs,
+//until no new boards turn up, therefore finds exactly the boards of at most that many pegs that can be solved.
+//The forward search meets the frontier as soon as it reaches a board with few enough pegs: either the board is in it,
+//and the rest of the solution is read off the frontier, or it is not, and the board cannot be solved.
+//(In two colors every jump removes a peg, so this is the frontier of a fixed depth. With more colors a jump can leave
+//the jumped peg in place, so the frontier is bounded by pegs rather than depth.)
+//A reverse jump takes back a jump from start over jumped to end: the peg on end, of color s, moves back to the empty
+//start, and the jumped hole goes from color c back to (c - s) mod numColors, which must not be empty, so c != s
+//(see SolverEngine.isValidReverseMove).
+//Boards are stored under their symmetric keys (see CanonicalKeys) in an open-addressed table, along with the number
+//of jumps each needs to reach a single peg.
+public class Frontier {
+
+	//Number of slots the table starts with. Always a power of two so the hash can be masked.
+	private static final int DEFAULT_CAPACITY = 1 << 12;
+
+	//Rules of the search: valid jumps and symmetric keys (see SolverEngine).
+	private final SolverEngine engine;
+
+	private final JumpTable jumps;
+
+	//Most pegs on any board of the frontier.
+	private final int pegs;
+
+	//Low and high words of each stored key, and the number of jumps from it to a single peg, plus one.
+	//A distance of 0 marks an empty slot.
+	private long[] lows;
+	private long[] highs;
+	private int[] distances;
+
+	//Number of boards stored, and the number at which the table is doubled in size.
+	private int size;
+	private int threshold;
+
+	//Most jumps any board of the frontier needs to reach a single peg.
+	private int depth;
+
+
+	//Parameterized constructor
+	//Searches backward from the one-peg boards, under the rules of an engine, through boards of at most the given
+	//number of pegs. The number of boards grows quickly with the number of pegs, so keep it small.
+	public Frontier(SolverEngine engine, int pegs) {
+		this.engine = engine;
+		this.jumps = engine.getJumps();
+		this.pegs = pegs;
+		allocate(DEFAULT_CAPACITY);
+		build();
+	}
+
+	//Checks whether a board has few enough pegs that the frontier holds it, if it can be solved at all.
+	public boolean covers(PackedBoard board) {
+		return board.pegCount() <= pegs;
+	}
+
+	//Checks whether a board, given by its symmetric key, can be solved.
+	//Only meaningful for boards the frontier covers.
+	public boolean contains(long low, long high) {
+		return distance(low, high) >= 0;
+	}
+
+	//Returns the number of jumps a board, given by its symmetric key, needs to reach a single peg,
+	//or -1 if it is not in the frontier.
+	public int distance(long low, long high) {
+		int mask = lows.length - 1;
+		int slot = TranspositionTable.hash(low, high) & mask;
+		while (distances[slot] != 0) {
+			if (lows[slot] == low && highs[slot] == high) {
+				return distances[slot] - 1;
+			}
+			slot = (slot + 1) & mask;
+		}
+		return -1;
+	}
+
+	//Returns the jumps that solve a board of the frontier, or null if it is not in the frontier.
+	//Each jump leads to a board one jump closer to a single peg, so this is a shortest solution.
+	public int[] complete(PackedBoard start) {
+		long[] key = new long[2];
+		engine.canonicalize(start, key);
+		int remaining = distance(key[0], key[1]);
+		if (remaining < 0) {
+			return null;
+		}
+
+		PackedBoard board = start.copy();
+		int[] solution = new int[remaining];
+		for (int step = 0; step < solution.length; step++) {
+			for (int jump = 0; jump < jumps.count; jump++) {
+				if (!engine.isValidMove(board, jump)) {
+					continue;
+				}
+				board.applyMove(jumps.start[jump], jumps.jumped[jump], jumps.end[jump]);
+				engine.canonicalize(board, key);
+				if (distance(key[0], key[1]) == remaining - 1) {
+					solution[step] = jump;
+					remaining--;
+					break;
+				}
+				board.undoMove(jumps.start[jump], jumps.jumped[jump], jumps.end[jump]);
+			}
+		}
+		return solution;
+	}
+
+	//Returns the most pegs on any board of the frontier.
+	public int getPegs() {
+		return pegs;
+	}
+
+	//Returns the number of boards in the frontier.
+	public int size() {
+		return size;
+	}
+
+	//Returns the most jumps any board of the frontier needs to reach a single peg.
+	public int getDepth() {
+		return depth;
+	}
+
+	public SolverEngine getEngine() {
+		return engine;
+	}
+
+	//Helper method to search backward, one level of jumps at a time, until a level adds no new boards.
+	//Each level is kept as the alternating low and high words of its boards' symmetric keys, which are boards themselves.
+	private void build() {
+		PackedBoard board = new PackedBoard(engine.getSize(), engine.getNumColors());
+		long[] key = new long[2];
+
+		long[] level = new long[64];
+		int count = 0;
+		for (int hole = 0; hole < board.getHoles(); hole++) {
+			for (int color = 1; color < engine.getNumColors(); color++) {
+				board.set(hole, color);
+				engine.canonicalize(board, key);
+				if (add(key[0], key[1], 0)) {
+					level = append(level, count++, key);
+				}
+				board.set(hole, 0);
+			}
+		}
+
+		while (count > 0) {
+			long[] next = new long[64];
+			int nextCount = 0;
+			for (int i = 0; i < count; i++) {
+				board.restore(level[2 * i], level[2 * i + 1]);
+				for (int jump = 0; jump < jumps.count; jump++) {
+					if (!engine.isValidReverseMove(board, jump)) {
+						continue;
+					}
+
+					int start = jumps.start[jump];
+					int jumped = jumps.jumped[jump];
+					int end = jumps.end[jump];
+					board.undoMove(start, jumped, end);
+					if (board.pegCount() <= pegs) {
+						engine.canonicalize(board, key);
+						if (add(key[0], key[1], depth + 1)) {
+							next = append(next, nextCount++, key);
+						}
+					}
+					board.applyMove(start, jumped, end);
+				}
+			}
+
+			level = next;
+			count = nextCount;
+			if (count > 0) {
+				depth++;
+			}
+		}
+	}
+
+	//Helper method to add the i-th key to a level, growing it if needed.
+	private static long[] append(long[] level, int i, long[] key) {
+		if (2 * i + 1 >= level.length) {
+			level = Arrays.copyOf(level, level.length * 2);
+		}
+		level[2 * i] = key[0];
+		level[2 * i + 1] = key[1];
+		return level;
+	}
+
+	//Helper method to add a board at a given distance from a single peg.
+	//Returns true if the board was not already present.
+	private boolean add(long low, long high, int distance) {
+		int mask = lows.length - 1;
+		int slot = TranspositionTable.hash(low, high) & mask;
+		while (distances[slot] != 0) {
+			if (lows[slot] == low && highs[slot] == high) {
+				return false;
+			}
+			slot = (slot + 1) & mask;
+		}
+
+		lows[slot] = low;
+		highs[slot] = high;
+		distances[slot] = distance + 1;
+		size++;
+
+		if (size > threshold) {
+			resize();
+		}
+		return true;
+	}
+
+	//Helper method to set up empty storage of a given capacity.
+	private void allocate(int capacity) {
+		lows = new long[capacity];
+		highs = new long[capacity];
+		distances = new int[capacity];
+		threshold = capacity / 2;
+	}
+
+	//Helper method to double the table and re-insert every board.
+	private void resize() {
+		long[] oldLows = lows;
+		long[] oldHighs = highs;
+		int[] oldDistances = distances;
+		allocate(lows.length * 2);
+
+		int mask = lows.length - 1;
+		for (int i = 0; i < oldDistances.length; i++) {
+			if (oldDistances[i] != 0) {
+				int slot = TranspositionTable.hash(oldLows[i], oldHighs[i]) & mask;
+				while (distances[slot] != 0) {
+					slot = (slot + 1) & mask;
+				}
+				lows[slot] = oldLows[i];
+				highs[slot] = oldHighs[i];
+				distances[slot] = oldDistances[i];
+			}
+		}
+	}
+}
@@ -0,0 +1,114 @@
+package main;
+
+//Necessary imports
+import java.util.HashMap;
+import java.util.Map;
+
+
+//Cheap tests that rule a board out without searching it, based on how pegs are spread over classes of holes.
+//Two ways of classing the holes of a triangle board are used, both by skew-coordinates (x, y):
+//		Lattice classes (x mod 2, y mod 2). A peg only ever moves two holes along a line, so it never leaves its class.
+//		Bell classes (x + y) mod 3, as in Bell (2008). The three holes of any jump fall in three different classes.
+//Neighboring holes are never in the same class of either kind, so if every peg lies in a single class,
+//no peg is next to another and no jump can be played: with more than one peg left, the board is dead.
+//For an even number of colors, the Bell parity vector (see MulticolorSolver.computeVector) never changes:
+//a jump moves a peg of color s two holes along a line and adds s to the peg it jumps, which leaves
+//the sum of colors mod 2 over two of the three classes the same. The only one-peg boards with a zero
+//vector have an even-colored peg left, which two colors don't have, so in two colors a board with a zero
+//vector can never be solved. With an odd number of colors no such sum is preserved, so the test always passes.
+//Every test reads the classes straight off the packed words through a mask per class, so it is constant time.
+public class Invariants {
+
+	//Tests built so far, keyed by board size and number of colors.
+	private static final Map<Long, Invariants> cache = new HashMap<>();
+
+	//Masks with the lowest bit of every hole of each class set, for the low and high words.
+	private final long[] latticeLow = new long[4];
+	private final long[] latticeHigh = new long[4];
+	private final long[] bellLow = new long[3];
+	private final long[] bellHigh = new long[3];
+
+	private final int bits;
+
+	private final int numColors;
+
+
+	//Returns the (shared) tests for a given board size and number of colors, building them if needed.
+	public static synchronized Invariants forBoard(int size, int numColors) {
+		return cache.computeIfAbsent(((long) size << 32) | numColors, k -> new Invariants(size, numColors));
+	}
+
+	//Parameterized constructor
+	private Invariants(int size, int numColors) {
+		this.numColors = numColors;
+		this.bits = Math.max(1, 32 - Integer.numberOfLeadingZeros(numColors - 1));
+		int perWord = 64 / bits;
+
+		for (int y = 0; y < size; y++) {
+			for (int x = 0; x <= y; x++) {
+				int hole = PackedBoard.holeIndex(x, y);
+				int lattice = (x % 2) * 2 + (y % 2);
+				int bell = (x + y) % 3;
+				if (hole < perWord) {
+					latticeLow[lattice] |= 1L << (hole * bits);
+					bellLow[bell] |= 1L << (hole * bits);
+				} else {
+					latticeHigh[lattice] |= 1L << ((hole - perWord) * bits);
+					bellHigh[bell] |= 1L << ((hole - perWord) * bits);
+				}
+			}
+		}
+	}
+
+	//Checks whether a board with more than one peg left has every peg in a single lattice class or a single
+	//Bell class, in which case no jump can be played.
+	public boolean isDead(PackedBoard board) {
+		if (board.pegCount() <= 1) {
+			return false;
+		}
+
+		//Every hole is folded down onto its lowest bit, so a set bit marks a peg.
+		long low = board.getLow();
+		long high = board.getHigh();
+		long pegsLow = low;
+		long pegsHigh = high;
+		for (int b = 1; b < bits; b++) {
+			pegsLow |= low >>> b;
+			pegsHigh |= high >>> b;
+		}
+
+		return occupied(pegsLow, pegsHigh, latticeLow, latticeHigh) == 1 || occupied(pegsLow, pegsHigh, bellLow, bellHigh) == 1;
+	}
+
+	//Checks whether the Bell parity vector of a board allows it to finish with a single peg.
+	//The vector never changes, so this only needs to be checked once, on the starting board.
+	public boolean canFinish(PackedBoard board) {
+		if (numColors % 2 != 0 || board.pegCount() <= 1) {
+			return true;
+		}
+
+		//A color is odd when the lowest bit of its hole is set.
+		int parity0 = parity(board, 0);
+		int parity1 = parity(board, 1);
+		int parity2 = parity(board, 2);
+		boolean zero = parity0 == parity1 && parity1 == parity2;
+
+		return !zero || numColors > 2;
+	}
+
+	//Helper method to count the classes that hold at least one peg.
+	private int occupied(long pegsLow, long pegsHigh, long[] classLow, long[] classHigh) {
+		int classes = 0;
+		for (int c = 0; c < classLow.length; c++) {
+			if ((pegsLow & classLow[c]) != 0 || (pegsHigh & classHigh[c]) != 0) {
+				classes++;
+			}
+		}
+		return classes;
+	}
+
+	//Helper method to find the sum of colors mod 2 over a Bell class.
+	private int parity(PackedBoard board, int bell) {
+		return (Long.bitCount(board.getLow() & bellLow[bell]) + Long.bitCount(board.getHigh() & bellHigh[bell])) & 1;
+	}
+}
@@ -0,0 +1,145 @@
+package main;
+
+//Necessary imports
+import java.util.Arrays;
+
+
+//Precomputed table of every legal jump on a triangle board of a given size.
+//Each jump is stored as three hole indices (see PackedBoard.holeIndex): the starting peg, the jumped peg
+//and the ending hole. Jumps are grouped by the hole they jump over, so a solver can visit every peg and
+//read off its candidate jumps without allocating anything or checking that they stay on the board.
+//Tables are built once per board size and shared.
+public class JumpTable {
+
+	//Jump orientations around a central (jumped) peg, as offsets of the start and end from the jumped peg.
+	//e.g., top-left to bottom-right, top-right to bottom-left, etc.
+	//The order here is the order in which the solvers try moves.
+	private static final Move[] DIRECTIONS = {
+		    new Move(new int[]{-1, -1}, new int[]{0, 0}, new int[]{1, 1}),
+		    new Move(new int[]{0, -1}, new int[]{0, 0}, new int[]{0, 1}),
+		    new Move(new int[]{1, 0}, new int[]{0, 0}, new int[]{-1, 0}),
+		    new Move(new int[]{1, 1}, new int[]{0, 0}, new int[]{-1, -1}),
+		    new Move(new int[]{0, 1}, new int[]{0, 0}, new int[]{0, -1}),
+		    new Move(new int[]{-1, 0}, new int[]{0, 0}, new int[]{1, 0})
+		};
+
+	//Tables built so far, indexed by board size.
+	private static JumpTable[] tables = new JumpTable[0];
+
+	//Number of rows in the triangle
+	final int size;
+
+	//Number of holes on the board
+	final int holes;
+
+	//Number of jumps on the board
+	final int count;
+
+	//Hole indices of the starting peg, jumped peg and ending hole of each jump
+	final int[] start;
+	final int[] jumped;
+	final int[] end;
+
+	//Jumps over hole h are numbered firstByJumped[h] up to (not including) firstByJumped[h + 1]
+	final int[] firstByJumped;
+
+	//Each jump in coordinate form, for printing solution paths
+	final Move[] moves;
+
+	//byStartAndEnd[start * holes + end] is the jump from start to end, or -1 if there is none
+	private final int[] byStartAndEnd;
+
+
+	//Returns the (shared) jump table for a given board size, building it if needed.
+	public static synchronized JumpTable forSize(int size) {
+		if (size >= tables.length) {
+			JumpTable[] grown = new JumpTable[size + 1];
+			System.arraycopy(tables, 0, grown, 0, tables.length);
+			tables = grown;
+		}
+		if (tables[size] == null) {
+			tables[size] = new JumpTable(size);
+		}
+		return tables[size];
+	}
+
+	//Parameterized constructor
+	//Walks every hole top to bottom, left to right, and records each orientation that stays on the board.
+	private JumpTable(int size) {
+		this.size = size;
+		this.holes = size * (size + 1) / 2;
+
+		int[] starts = new int[holes * DIRECTIONS.length];
+		int[] ends = new int[holes * DIRECTIONS.length];
+		int[] jumps = new int[holes * DIRECTIONS.length];
+		Move[] found = new Move[holes * DIRECTIONS.length];
+		firstByJumped = new int[holes + 1];
+
+		int n = 0;
+		for (int i = 0; i < size; i++) {
+			for (int j = 0; j <= i; j++) {
+				int hole = PackedBoard.holeIndex(j, i);
+				firstByJumped[hole] = n;
+
+				for (Move direction : DIRECTIONS) {
+					int[] s = {j + direction.start[0], i + direction.start[1]};
+					int[] e = {j + direction.end[0], i + direction.end[1]};
+
+					if (isOnBoard(s[0], s[1]) && isOnBoard(e[0], e[1])) {
+						starts[n] = PackedBoard.holeIndex(s[0], s[1]);
+						jumps[n] = hole;
+						ends[n] = PackedBoard.holeIndex(e[0], e[1]);
+						found[n] = new Move(s, new int[]{j, i}, e);
+						n++;
+					}
+				}
+			}
+		}
+		firstByJumped[holes] = n;
+
+		this.count = n;
+		this.start = Arrays.copyOf(starts, n);
+		this.jumped = Arrays.copyOf(jumps, n);
+		this.end = Arrays.copyOf(ends, n);
+		this.moves = Arrays.copyOf(found, n);
+
+		this.byStartAndEnd = new int[holes * holes];
+		Arrays.fill(byStartAndEnd, -1);
+		for (int jump = 0; jump < n; jump++) {
+			byStartAndEnd[start[jump] * holes + end[jump]] = jump;
+		}
+	}
+
+	//Helper method to check if a position is on the board.
+	private boolean isOnBoard(int x, int y) {
+		return y >= 0 && y < size && x >= 0 && x <= y;
+	}
+
+	//Returns a jump in coordinate form.
+	public Move getMove(int jump) {
+		return moves[jump];
+	}
+
+	//Returns the jump from one hole to another, or -1 if there is no such jump.
+	public int indexOf(int start, int end) {
+		return byStartAndEnd[start * holes + end];
+	}
+
+	//Returns the jump that a move in coordinate form corresponds to, or -1 if there is none.
+	public int indexOf(Move move) {
+		return indexOf(PackedBoard.holeIndex(move.start[0], move.start[1]), PackedBoard.holeIndex(move.end[0], move.end[1]));
+	}
+
+	//Returns the number of jumps on the board.
+	public int getCount() {
+		return count;
+	}
+
+	public int getSize() {
+		return size;
+	}
+
+	public int getHoles() {
+		return holes;
+	}
+}
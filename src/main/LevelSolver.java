@@ -0,0 +1,360 @@
+package main;
+
+//Necessary imports
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+
+
+//Exhaustive solver that finds every board of a given size and number of colors that can be solved, all at once,
+//instead of searching each starting board on its own. Boards are split into levels by their number of pegs.
+//No jump ever adds a peg, so a board of p pegs can be solved exactly when some jump leads to a solvable board
+//of p - 1 pegs, or of p pegs if the jump leaves the jumped peg in place. Levels are therefore built up from the
+//one-peg boards with reverse jumps (see SolverEngine.isValidReverseMove): level p starts as every board one
+//reverse jump away from level p - 1 that adds a peg, and then takes in every board a reverse jump away from its
+//own new boards that keeps the count the same, until no new boards turn up. (In two colors every jump removes a
+//peg, so the second step never finds anything and each level is a single step.)
+//Each level is kept on disk as a file of symmetric keys (see CanonicalKeys), sorted and without duplicates,
+//and is only ever read as a stream, so the only limit on the size of a level is the disk.
+//The top level, of boards with a single vacancy, holds every starting board that can be solved.
+public class LevelSolver {
+
+	//Number of boards sorted in memory at once before they are written out as a run of the file being built.
+	private static final int RUN_BOARDS = 1 << 20;
+
+	//Rules of the search: reverse jumps and symmetric keys (see SolverEngine).
+	private final SolverEngine engine;
+
+	private final JumpTable jumps;
+
+	//Directory holding the file of each level.
+	private final Path directory;
+
+	//Number of boards in each level, indexed by number of pegs, once built.
+	private final long[] levelSizes;
+
+	//Sort buffer, as alternating low and high words, and the run files written so far for the file being built.
+	private final long[] buffer = new long[2 * RUN_BOARDS];
+	private int buffered;
+	private final List<Path> runs = new ArrayList<>();
+
+
+	//Parameterized constructor
+	//Takes in the board size, number of colors and jump restriction, and the directory to keep level files in.
+	public LevelSolver(int size, int numColors, boolean restrictToNJumps, Path directory) {
+		this.engine = new SolverEngine(size, numColors, restrictToNJumps);
+		this.jumps = engine.getJumps();
+		this.directory = directory;
+		this.levelSizes = new long[jumps.holes];
+	}
+
+	//Builds every level up to the starting boards, and returns the number of starting boards
+	//(boards with a single vacancy) that can be solved, up to symmetry.
+	//As in the all-boards sweep (see Main.generateBoards), boards whose pegs are all of the first color are
+	//left out of the count, though they stay in the top level (see getLevelSize).
+	public long countSolvable() throws IOException {
+		Files.createDirectories(directory);
+
+		PackedBoard board = new PackedBoard(engine.getSize(), engine.getNumColors());
+		long[] key = new long[2];
+		for (int hole = 0; hole < jumps.holes; hole++) {
+			for (int color = 1; color < engine.getNumColors(); color++) {
+				board.set(hole, color);
+				engine.canonicalize(board, key);
+				sortBoard(key[0], key[1]);
+				board.set(hole, 0);
+			}
+		}
+		levelSizes[1] = finishSort(levelFile(1));
+
+		for (int pegs = 2; pegs < jumps.holes; pegs++) {
+			Path level = levelFile(pegs);
+			reverseJumps(levelFile(pegs - 1), true);
+			levelSizes[pegs] = finishSort(level);
+
+			//Boards added to the level in the latest round, which the next round starts from.
+			Path added = directory.resolve("added.bin");
+			Path candidates = directory.resolve("candidates.bin");
+			Path merged = directory.resolve("merged.bin");
+			Files.copy(level, added, StandardCopyOption.REPLACE_EXISTING);
+			while (true) {
+				reverseJumps(added, false);
+				finishSort(candidates);
+				if (difference(candidates, level, added) == 0) {
+					break;
+				}
+				levelSizes[pegs] = merge(List.of(level, added), merged);
+				Files.move(merged, level, StandardCopyOption.REPLACE_EXISTING);
+			}
+			Files.delete(added);
+			Files.delete(candidates);
+		}
+		return levelSizes[jumps.holes - 1] - countSingleColor();
+	}
+
+	//Returns the number of solvable boards with a given number of pegs, up to symmetry, once countSolvable has run.
+	public long getLevelSize(int pegs) {
+		return levelSizes[pegs];
+	}
+
+	//Returns the file of solvable boards with a given number of pegs: the low and high words of each board's
+	//symmetric key, in ascending order (high word first, as signed longs).
+	public Path levelFile(int pegs) {
+		return directory.resolve("level-" + pegs + ".bin");
+	}
+
+	//Helper method to count the starting boards in the top level whose pegs are all of the first color,
+	//one per vacancy up to symmetry.
+	private long countSingleColor() throws IOException {
+		PackedBoard board = new PackedBoard(engine.getSize(), engine.getNumColors());
+		long[] key = new long[2];
+		for (int hole = 0; hole < jumps.holes; hole++) {
+			board.set(hole, 1);
+		}
+		for (int hole = 0; hole < jumps.holes; hole++) {
+			board.set(hole, 0);
+			engine.canonicalize(board, key);
+			sortBoard(key[0], key[1]);
+			board.set(hole, 1);
+		}
+
+		Path singleColor = directory.resolve("single-color.bin");
+		Path unsolvable = directory.resolve("unsolvable.bin");
+		long count = finishSort(singleColor) - difference(singleColor, levelFile(jumps.holes - 1), unsolvable);
+		Files.delete(singleColor);
+		Files.delete(unsolvable);
+		return count;
+	}
+
+	//Helper method to play every reverse jump on every board of a level file into the sort buffer,
+	//either only those that add a peg or only those that keep the number of pegs the same.
+	private void reverseJumps(Path from, boolean addPeg) throws IOException {
+		PackedBoard board = new PackedBoard(engine.getSize(), engine.getNumColors());
+		long[] key = new long[2];
+		try (LevelReader in = new LevelReader(from)) {
+			while (in.next()) {
+				board.restore(in.low, in.high);
+				for (int jump = 0; jump < jumps.count; jump++) {
+					if (!engine.isValidReverseMove(board, jump) || board.isFilled(jumps.jumped[jump]) == addPeg) {
+						continue;
+					}
+					board.undoMove(jumps.start[jump], jumps.jumped[jump], jumps.end[jump]);
+					engine.canonicalize(board, key);
+					sortBoard(key[0], key[1]);
+					board.applyMove(jumps.start[jump], jumps.jumped[jump], jumps.end[jump]);
+				}
+			}
+		}
+	}
+
+	//Helper method to add a board to the sort buffer, writing the buffer out as a sorted run once it is full.
+	private void sortBoard(long low, long high) throws IOException {
+		buffer[2 * buffered] = low;
+		buffer[2 * buffered + 1] = high;
+		buffered++;
+		if (buffered == RUN_BOARDS) {
+			writeRun();
+		}
+	}
+
+	//Helper method to sort the buffer and write it out as a run file.
+	private void writeRun() throws IOException {
+		sort(buffer, 0, buffered);
+		Path run = directory.resolve("run-" + runs.size() + ".bin");
+		try (LevelWriter out = new LevelWriter(run)) {
+			for (int i = 0; i < buffered; i++) {
+				out.write(buffer[2 * i], buffer[2 * i + 1]);
+			}
+		}
+		runs.add(run);
+		buffered = 0;
+	}
+
+	//Helper method to merge every board sorted since the last call into a single file.
+	//Returns the number of distinct boards written.
+	private long finishSort(Path to) throws IOException {
+		writeRun();
+		long written = merge(runs, to);
+		for (Path run : runs) {
+			Files.delete(run);
+		}
+		runs.clear();
+		return written;
+	}
+
+	//Helper method to merge sorted files into one, dropping duplicates.
+	//Returns the number of boards written.
+	private static long merge(List<Path> files, Path to) throws IOException {
+		List<LevelReader> readers = new ArrayList<>();
+		try (LevelWriter out = new LevelWriter(to)) {
+			for (Path file : files) {
+				LevelReader reader = new LevelReader(file);
+				readers.add(reader);
+				if (!reader.next()) {
+					reader.close();
+					readers.remove(reader);
+				}
+			}
+
+			//Few files are ever merged at once, so the smallest board is found by a scan rather than a heap.
+			while (!readers.isEmpty()) {
+				LevelReader smallest = readers.get(0);
+				for (LevelReader reader : readers) {
+					if (compare(reader.low, reader.high, smallest.low, smallest.high) < 0) {
+						smallest = reader;
+					}
+				}
+				out.write(smallest.low, smallest.high);
+				if (!smallest.next()) {
+					smallest.close();
+					readers.remove(smallest);
+				}
+			}
+			return out.written;
+		} finally {
+			for (LevelReader reader : readers) {
+				reader.close();
+			}
+		}
+	}
+
+	//Helper method to write the boards of one sorted file that are not in another.
+	//Returns the number of boards written.
+	private static long difference(Path from, Path without, Path to) throws IOException {
+		try (LevelReader in = new LevelReader(from); LevelReader other = new LevelReader(without); LevelWriter out = new LevelWriter(to)) {
+			boolean more = other.next();
+			while (in.next()) {
+				while (more && compare(other.low, other.high, in.low, in.high) < 0) {
+					more = other.next();
+				}
+				if (!more || compare(other.low, other.high, in.low, in.high) != 0) {
+					out.write(in.low, in.high);
+				}
+			}
+			return out.written;
+		}
+	}
+
+	//Helper method to order boards by high word, then low word.
+	private static int compare(long lowA, long highA, long lowB, long highB) {
+		int c = Long.compare(highA, highB);
+		return (c != 0) ? c : Long.compare(lowA, lowB);
+	}
+
+	//Helper method to sort boards [from, to) of an array of alternating low and high words.
+	//A quicksort on the pairs, recursing into the smaller side, with insertion sort for short ranges.
+	private static void sort(long[] boards, int from, int to) {
+		while (to - from > 16) {
+			int mid = (from + to) >>> 1;
+			long pivotLow = boards[2 * mid];
+			long pivotHigh = boards[2 * mid + 1];
+			int i = from;
+			int j = to - 1;
+			while (i <= j) {
+				while (compare(boards[2 * i], boards[2 * i + 1], pivotLow, pivotHigh) < 0) {
+					i++;
+				}
+				while (compare(boards[2 * j], boards[2 * j + 1], pivotLow, pivotHigh) > 0) {
+					j--;
+				}
+				if (i <= j) {
+					swap(boards, i++, j--);
+				}
+			}
+			if (j + 1 - from < to - i) {
+				sort(boards, from, j + 1);
+				from = i;
+			} else {
+				sort(boards, i, to);
+				to = j + 1;
+			}
+		}
+
+		for (int i = from + 1; i < to; i++) {
+			for (int j = i; j > from && compare(boards[2 * j], boards[2 * j + 1], boards[2 * j - 2], boards[2 * j - 1]) < 0; j--) {
+				swap(boards, j, j - 1);
+			}
+		}
+	}
+
+	//Helper method to swap two boards of an array of alternating low and high words.
+	private static void swap(long[] boards, int a, int b) {
+		long low = boards[2 * a];
+		long high = boards[2 * a + 1];
+		boards[2 * a] = boards[2 * b];
+		boards[2 * a + 1] = boards[2 * b + 1];
+		boards[2 * b] = low;
+		boards[2 * b + 1] = high;
+	}
+
+
+	//Streams the boards of a level file, one at a time.
+	private static class LevelReader implements Closeable {
+
+		private final DataInputStream in;
+
+		//Words of the current board.
+		long low;
+		long high;
+
+		LevelReader(Path file) throws IOException {
+			this.in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), 1 << 16));
+		}
+
+		//Moves to the next board. Returns false at the end of the file.
+		boolean next() throws IOException {
+			try {
+				low = in.readLong();
+			} catch (EOFException e) {
+				return false;
+			}
+			high = in.readLong();
+			return true;
+		}
+
+		@Override
+		public void close() throws IOException {
+			in.close();
+		}
+	}
+
+	//Writes boards, in ascending order, to a level file, skipping any board equal to the one before it.
+	private static class LevelWriter implements Closeable {
+
+		private final DataOutputStream out;
+
+		//Number of boards written, and the last one written.
+		long written;
+		private long lastLow;
+		private long lastHigh;
+
+		LevelWriter(Path file) throws IOException {
+			this.out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file), 1 << 16));
+		}
+
+		void write(long low, long high) throws IOException {
+			if (written > 0 && low == lastLow && high == lastHigh) {
+				return;
+			}
+			out.writeLong(low);
+			out.writeLong(high);
+			lastLow = low;
+			lastHigh = high;
+			written++;
+		}
+
+		@Override
+		public void close() throws IOException {
+			out.close();
+		}
+	}
+}
@@ -2,6 +2,7 @@ package main;
 
 //Necessary imports
 import java.io.IOException;
+import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
@@ -11,10 +12,11 @@ public class Main {
 
 	//List of specific positions where starting holes could be, up to symmetry. Used in populating all
 	//permutations of a certain board
-	//Important - the USER needs to set these for each change in size of board to analyze.
+	//Derived from the board size in the all-boards mode (see Symmetry), so it no longer needs to be set by hand.
 	public static int[][] setHoles = {{0,0}, {0, 1}, {0, 2}, {1, 2}};
 	
-	//List of all boards to solve
+	//List of all boards to solve, filled by generateBoards.
+	//The all-boards mode streams boards from a BoardEnumeration instead, so this list is only used on request.
 	public static List<int[]> boards = new ArrayList<int[]>();
 	
 	
@@ -47,6 +49,9 @@ public class Main {
 			//board, colors, filename, animate in console, output to file, restrict to only jumps with form (n-1), computeVector
 			MulticolorSolver solve = new MulticolorSolver(boardTemp, 5, "singularSolutions.txt", true, false, false, false);
 			
+			//For large boards, the number of search threads can be passed as a final parameter, e.g.
+			//new MulticolorSolver(boardTemp, 5, "singularSolutions.txt", true, false, false, false, Runtime.getRuntime().availableProcessors());
+			
 
 		}
 		
@@ -60,6 +65,9 @@ public class Main {
 			//Where the user sets the size of board to solve in three colors.
 			int boardSize = 5;
 			
+			//Number of threads to solve boards with. Results are still written in order.
+			int threads = Runtime.getRuntime().availableProcessors();
+			
 			//Determining the number of elements based on the size of the board.
 			//Used in generating all permutations of 3 color board elements.
 			int numElements = 0;
@@ -67,21 +75,54 @@ public class Main {
 				numElements += x;
 			}
 			
-			//Generates all permutations of the board of a given size.
-			generateBoards(numElements - 1);
-			
-			//Solves all boards for each given starting vacancy.
-			for (int[] hole : setHoles) {
-				
-				for (int[] board : boards) {
-					
-					int[][] newBoard = populateBoard(boardSize, board, hole);
-					
-					//replace "solutions.txt" with the desired filename for solutions.
-					MultiboardSolver m = new MultiboardSolver(newBoard, "solutions.txt");
-					
-				}
+			//Enumerates all permutations of the board of a given size, one at a time as they are solved.
+			BoardEnumeration boards = new BoardEnumeration(numElements - 1);
+			
+			//One starting vacancy for each set of vacancies that are equivalent up to rotation and reflection.
+			setHoles = Symmetry.forSize(boardSize).holeRepresentatives();
+			
+			//TRUE = keep solved and unsolvable positions in a tablebase file, reused by later boards and later runs. <------- Default
+			//FALSE = solve every board from scratch.
+			boolean useTablebase = true;
 			
+			//TRUE = only count the boards that can be solved, all at once, level by level on disk (see LevelSolver).
+			//FALSE = solve every board and write out its solution. <------- Default
+			boolean countOnly = false;
+			
+			//TRUE = write results in a compact binary file, solutions.bin (see ResultWriter; turn it into text with ResultReader),
+			//indexed in solutions.bin.idx for looking up single boards (see ResultIndex).
+			//FALSE = write results as text, to solutions.txt. <------- Default
+			boolean binaryOutput = false;
+			
+			//TRUE = save progress every minute to a checkpoint file next to the solutions (e.g. solutions.txt.checkpoint),
+			//and resume from it if the sweep was stopped partway through. <------- Default
+			//FALSE = always start from the first board.
+			boolean checkpoint = true;
+			
+			//Number of worker processes to split the sweep across (see ShardedSweep). With more than one, the boards are
+			//split into shards solved by separate processes, each with threads / workers threads, and the results are
+			//merged in order at the end. Progress is kept in a directory next to the solutions (e.g. solutions.txt.shards),
+			//so a sweep that was stopped picks up from where it was.
+			int workers = 1;
+			
+			if (countOnly) {
+				//Level files are kept in the given directory.
+				LevelSolver levels = new LevelSolver(boardSize, 3, false, Paths.get("levels-T" + boardSize + "-3"));
+				System.out.println(levels.countSolvable() + " starting boards can be solved (up to symmetry).");
+			} else if (workers > 1) {
+				//Each worker keeps its own tablebase in the sweep's directory.
+				String fileName = binaryOutput ? "solutions.bin" : "solutions.txt";
+				ShardedSweep sweep = new ShardedSweep(boardSize, fileName, workers, Math.max(1, threads / workers), true, useTablebase, binaryOutput, Paths.get(fileName + ".shards"));
+				sweep.solveAll(setHoles, boards);
+			} else {
+				//Solves all boards for each given starting vacancy, skipping boards that are a rotation or
+				//reflection of another (set the fourth parameter to false to solve every board).
+				//replace "solutions.txt" (or "solutions.bin") with the desired filename for solutions.
+				try (Tablebase tablebase = useTablebase ? Tablebase.open(Paths.get(Tablebase.fileName(boardSize, 3, false)), boardSize, 3, false) : null) {
+					String fileName = binaryOutput ? "solutions.bin" : "solutions.txt";
+					BatchSolver batch = new BatchSolver(boardSize, fileName, threads, true, tablebase, binaryOutput, checkpoint ? Paths.get(fileName + ".checkpoint") : null, 60);
+					batch.solveAll(setHoles, boards);
+				}
 			}
 		}
 		
@@ -96,6 +137,7 @@ public class Main {
 	
 	
 	//Generates all possible permutations of a board for a given size.
+	//Every board is held in memory at once; see BoardEnumeration for the same boards produced one at a time.
 	//Each iteration, a board of 1's has a single 2 added to the front of the array
 	//This 2 replaces the first 1 it encounters.
 	//Then, all lexicographical permutations of the elements are appended to the list of possible boards.
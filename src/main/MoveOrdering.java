@@ -0,0 +1,29 @@
+package main;
+
+
+//Order in which the search tries the valid jumps on a board (see SolverEngine and MoveOrderings).
+//Jumps are scored as each board is reached, and tried highest score first, jumps with equal scores in
+//jump table order (pegs top to bottom, left to right). A jump the tablebase knows to continue a solution
+//is always tried before any of them.
+//An ordering can learn as the search goes: it is told when a solve starts, and whenever the search
+//reaches a board with fewer pegs than any board before it in that solve.
+//An ordering that learns belongs to a single engine, like the rest of the search state.
+public interface MoveOrdering {
+
+	//Scores a valid jump on a board reached at a given depth. Higher scores are tried first.
+	int score(PackedBoard board, int jump, int depth);
+
+	//Called at the start of every solve.
+	default void reset() {
+	}
+
+	//Called when the search reaches a board with fewer pegs than any before in the solve.
+	//path[0..depth) are the jumps that led to it.
+	default void improved(int[] path, int depth) {
+	}
+
+	//Whether scores can differ at all. If not, jumps are tried in jump table order without being scored.
+	default boolean sorts() {
+		return true;
+	}
+}
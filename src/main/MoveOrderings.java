@@ -0,0 +1,166 @@
+package main;
+
+//Necessary imports
+import java.util.Arrays;
+
+
+//The move orderings available to the search (see MoveOrdering).
+//		table:   jump table order, pegs top to bottom, left to right.
+//		center:  jumps that move a peg toward the center of the board first.
+//		corners: jumps that move a peg toward the corners and edges first.
+//		colors:  jumps that remove the jumped peg ((start + jumped) % numColors == 0) first, then table order.
+//		history: the history and killer heuristics. Whenever the search reaches a board with fewer pegs than
+//		         ever before, the jumps that led to it are rewarded, the deeper the more; the jump it played at
+//		         each depth also becomes that depth's killer, tried first at every board of that depth.
+public class MoveOrderings {
+
+	//Not meant to be instantiated.
+	private MoveOrderings() {
+	}
+
+	//Returns the ordering with a given name (one of the above), for a given board size and number of colors.
+	public static MoveOrdering forName(String name, int size, int numColors) {
+		switch (name) {
+		case "table":
+			return table();
+		case "center":
+			return center(size);
+		case "corners":
+			return corners(size);
+		case "colors":
+			return colors(size, numColors);
+		case "history":
+			return history(size);
+		default:
+			throw new IllegalArgumentException("Unknown move ordering: " + name);
+		}
+	}
+
+	public static MoveOrdering table() {
+		return new Table();
+	}
+
+	public static MoveOrdering center(int size) {
+		return new Geometric(size, true);
+	}
+
+	public static MoveOrdering corners(int size) {
+		return new Geometric(size, false);
+	}
+
+	public static MoveOrdering colors(int size, int numColors) {
+		return new Colors(size, numColors);
+	}
+
+	public static MoveOrdering history(int size) {
+		return new History(size);
+	}
+
+
+	//Jump table order: every jump scores the same.
+	private static class Table implements MoveOrdering {
+
+		@Override
+		public int score(PackedBoard board, int jump, int depth) {
+			return 0;
+		}
+
+		@Override
+		public boolean sorts() {
+			return false;
+		}
+	}
+
+	//Scores each jump by how far it moves its peg toward (or away from) the center of the board.
+	//Distances to the center are measured in barycentric coordinates (x, y - x, size - 1 - y), which are all
+	//equal at the center, scaled by 3 to stay whole numbers.
+	private static class Geometric implements MoveOrdering {
+
+		private final int[] scores;
+
+		Geometric(int size, boolean towardCenter) {
+			JumpTable jumps = JumpTable.forSize(size);
+			int[] distance = new int[jumps.holes];
+			for (int y = 0; y < size; y++) {
+				for (int x = 0; x <= y; x++) {
+					int third = size - 1;
+					int d = Math.max(Math.abs(3 * x - third), Math.max(Math.abs(3 * (y - x) - third), Math.abs(3 * (size - 1 - y) - third)));
+					distance[PackedBoard.holeIndex(x, y)] = d;
+				}
+			}
+
+			scores = new int[jumps.count];
+			for (int jump = 0; jump < jumps.count; jump++) {
+				int closer = distance[jumps.start[jump]] - distance[jumps.end[jump]];
+				scores[jump] = towardCenter ? closer : -closer;
+			}
+		}
+
+		@Override
+		public int score(PackedBoard board, int jump, int depth) {
+			return scores[jump];
+		}
+	}
+
+	//Scores each jump by whether it removes the jumped peg.
+	private static class Colors implements MoveOrdering {
+
+		private final JumpTable jumps;
+
+		private final int numColors;
+
+		Colors(int size, int numColors) {
+			this.jumps = JumpTable.forSize(size);
+			this.numColors = numColors;
+		}
+
+		@Override
+		public int score(PackedBoard board, int jump, int depth) {
+			int start = board.get(jumps.start[jump]);
+			int jumped = board.get(jumps.jumped[jump]);
+			return (start + jumped) % numColors == 0 ? 1 : 0;
+		}
+	}
+
+	//History and killer heuristics, learned anew in each solve.
+	private static class History implements MoveOrdering {
+
+		//Reward of every jump so far.
+		private final long[] history;
+
+		//Killer jump of each depth, or -1.
+		private int[] killers = new int[64];
+
+		History(int size) {
+			this.history = new long[JumpTable.forSize(size).count];
+			Arrays.fill(killers, -1);
+		}
+
+		@Override
+		public int score(PackedBoard board, int jump, int depth) {
+			if (depth < killers.length && killers[depth] == jump) {
+				return Integer.MAX_VALUE;
+			}
+			return (int) Math.min(history[jump], Integer.MAX_VALUE - 1);
+		}
+
+		@Override
+		public void reset() {
+			Arrays.fill(history, 0);
+			Arrays.fill(killers, -1);
+		}
+
+		@Override
+		public void improved(int[] path, int depth) {
+			if (depth > killers.length) {
+				int length = killers.length;
+				killers = Arrays.copyOf(killers, Math.max(length * 2, depth));
+				Arrays.fill(killers, length, killers.length, -1);
+			}
+			for (int d = 0; d < depth; d++) {
+				history[path[d]] += d + 1;
+				killers[d] = path[d];
+			}
+		}
+	}
+}
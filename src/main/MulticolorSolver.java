@@ -5,7 +5,6 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.io.BufferedWriter;
-import java.io.FileWriter;
 import java.io.IOException;
 
 
@@ -17,13 +16,6 @@ public class MulticolorSolver {
 	//2D representation of board
 	private int[][] board;
 	
-	//Variable that tracks the level of recursion. Used for debugging.
-	private int recursionLevel;
-	
-	//Tablebase of boards that have previously been determined unsolvable.
-	//Generated at runtime.
-	public static List<int[][]> previousBoards = new ArrayList<int[][]>();
-	
 	//Number of colors on the board
 	private int numColors;
 	
@@ -40,29 +32,42 @@ public class MulticolorSolver {
 	//Used for assessing the performance of certain solution paths on boards of >4 colors.
 	private boolean restrictToNJumps;
 	
-	//Boolean tracking whether a solution path has been found.
-	private boolean solved = false;
-	
 	//Boolean to determine whether to output the parity-vector representation of the board*
 	//As described in Bell (2008).
 	private boolean computeVector;
 	
-	//Move array used in the recursiveSolve method. Each entry represents a jump in a different
-	//orientation around a central peg; e.g., top-left to bottom-right, top-right to bottom-left, etc.
-	private static final Move[] MOVES = {
-		    new Move(new int[]{-1, -1}, new int[]{0, 0}, new int[]{1, 1}),
-		    new Move(new int[]{0, -1}, new int[]{0, 0}, new int[]{0, 1}),
-		    new Move(new int[]{1, 0}, new int[]{0, 0}, new int[]{-1, 0}),
-		    new Move(new int[]{1, 1}, new int[]{0, 0}, new int[]{-1, -1}),
-		    new Move(new int[]{0, 1}, new int[]{0, 0}, new int[]{0, -1}),
-		    new Move(new int[]{-1, 0}, new int[]{0, 0}, new int[]{1, 0})
-		};
+	//Number of threads to search with. Anything above 1 hands the search to a ParallelSolver.
+	private int threads;
+	
+	//Table of every legal jump for this size of board, shared between solvers.
+	private JumpTable jumps;
+	
+	//The search itself, which holds the state of each solve (see SolverEngine).
+	private SolverEngine engine;
+	
+	//Measurements of the latest solve, single-threaded or parallel (see SearchStats).
+	private SearchStats stats;
 	
 	
 	
 	
 	//Parameterized constructor
+	//Searches in a single thread.
     public MulticolorSolver(int[][] board, int numColors, String fileName, boolean animate, boolean output, boolean restrictToNJumps, boolean computeVector) throws IOException {
+    	this(board, numColors, fileName, animate, output, restrictToNJumps, computeVector, 1);
+    }
+    
+	//Parameterized constructor
+	//Searches with the given number of threads.
+    public MulticolorSolver(int[][] board, int numColors, String fileName, boolean animate, boolean output, boolean restrictToNJumps, boolean computeVector, int threads) throws IOException {
+    	this(board, numColors, fileName, animate, output, restrictToNJumps, computeVector, threads, null);
+    }
+    
+	//Parameterized constructor
+	//Searches with the given number of threads, consulting and adding to a persistent tablebase.
+	//The tablebase must have been opened for the same size of board, number of colors and jump restriction.
+    public MulticolorSolver(int[][] board, int numColors, String fileName, boolean animate, boolean output, boolean restrictToNJumps, boolean computeVector, int threads, Tablebase tablebase) throws IOException {
+    	this.engine = new SolverEngine(board.length, numColors, restrictToNJumps, tablebase);
     	this.board = board;
     	this.numColors = numColors;
     	this.fileName = fileName;
@@ -70,6 +75,8 @@ public class MulticolorSolver {
     	this.output = output;
     	this.restrictToNJumps = restrictToNJumps;
     	this.computeVector = computeVector;
+    	this.threads = threads;
+    	this.jumps = JumpTable.forSize(board.length);
     	
     	if (output) {
         	filePrintBoard(board);
@@ -115,147 +122,60 @@ public class MulticolorSolver {
     }
 
     //Where it all begins.
-    //Method creates a copy of the original board to prevent passed-by-reference shenanigans.
-    //Begins the recursive solution algorithm.
-    public List<Move> initializeSolver() {
-    	
-    	int[][] boardCopy = new int[board.length][board.length];
-    	for(int x = 0; x < board.length; x++) {
-    		for (int y = 0; y < board.length; y++) {
-    			boardCopy[x][y] = board[x][y];
-    		}
+    //Method packs a copy of the original board to prevent passed-by-reference shenanigans.
+    //Begins the search (see SolverEngine), or the parallel search if more than one thread was asked for.
+    //Every call is a fresh solve, which shares nothing with earlier solves except the tablebase, if there is one.
+    public List<Move> initializeSolver() throws IOException {
+    	
+    	if (threads > 1) {
+    		ParallelSolver parallel = new ParallelSolver(engine, threads);
+    		List<Move> path = parallel.solve(board);
+    		stats = parallel.getStats();
+    		return path;
     	}
     	
-    	List<Move> solution = recursiveSolve(boardCopy);
-    	
-    	return solution;
+    	return recursiveSolve(board);
     }
     
-    //Recursive solution to check for a solution of a board.
-    //Algorithm description:
-    //		Add the current board to the list of previously-searched boards.
-    //		Begin search of current board.
-    //		Create a new list for a potential path to solution on the board.
-    //		If board is currently in solved state, return path.
-    //		Check all valid moves on the board.
-    //		For each valid move, check if the board has previously been searched, and if so, return.
-    //		For each valid move, if the board is novel, go one level deeper in recursion and repeat the process.
-    //		If no valid moves, return unsolvable board and remove move from potential solution path.
-    public List<Move> recursiveSolve(int[][] board) {
-        
-        previousBoards.add(copyBoard(board));
-        recursionLevel++;
-        List<Move> path = new ArrayList<>();
-
-        if (!anyPegsLeft(board)) {
-            solved = true;
-            return path;
-        }
-
-        for (int i = 0; i < board.length; i++) {
-            for (int j = 0; j <= i; j++) {
-                if (board[i][j] != 0) {
-                    int[] jumped = {j, i};
-
-                    for (Move move : MOVES) {
-                        int[] start = new int[]{j + move.start[0], i + move.start[1]};
-                        int[] end = new int[]{j + move.end[0], i + move.end[1]};
-
-                        if (isValidMove(board, start, jumped, end)) {
-                            int sStart = board[start[1]][start[0]];
-                            int sJumped = board[jumped[1]][jumped[0]];
-                            int sEnd = board[end[1]][end[0]];
-
-                            applyMove(board, start, jumped, end);
-                            Move temp = new Move(start, jumped, end);
-                            path.add(temp);
-
-                            if (!containsCopy(board)) {
-                                List<Move> subPath = recursiveSolve(board);
-                                if (subPath != null) {
-                                    pathAdd(path, subPath);
-                                    return path;
-                                }
-                            }
-
-                            // Undo the move if no solution found in the subpath
-                            path.remove(path.size() - 1);
-                            board[start[1]][start[0]] = sStart;
-                            board[jumped[1]][jumped[0]] = sJumped;
-                            board[end[1]][end[0]] = sEnd;
-                        }
-                    }
-                }
-            }
-        }
-
-        recursionLevel--;
-        return null;
+    //Searches a board for a solution path, or returns null if there is none.
+    //The search is no longer recursive: it is handed to the engine (see SolverEngine), which works on a packed copy,
+    //so the board passed in is left as it was.
+    public List<Move> recursiveSolve(int[][] board) throws IOException {
+    	
+    	int[] solution = engine.solve(new PackedBoard(board, numColors));
+    	stats = engine.getStats();
+    	if (solution == null) {
+    		return null;
+    	}
+    	
+    	List<Move> path = new ArrayList<>(solution.length);
+    	for (int jump : solution) {
+    		path.add(jumps.getMove(jump));
+    	}
+    	return path;
     }
     
-
     //Helper method to check if a position is on a given board.
-    //working as intended for variable board sizes, passed invididual coordinates
     public boolean isOnBoard(int board[][], int x, int y) {
-    	if (y >= 0 && y < board.length && x >= 0 && x <= y) {
-    		return true;
-    	}
-    	
-    	return false;
+    	return y >= 0 && y < board.length && x >= 0 && x <= y;
     }
     
-    //passed arrays of the positions, appears to be working......
+    //Checks whether a move can be played on a board, under the rules of the engine (see SolverEngine.isValidMove).
     public boolean isValidMove(int board[][], int[] start, int[] jumped, int[] end) {
-    	
-    	//makes sure that a move is all on the board
-    	
-    	if (isOnBoard(board, start[0], start[1]) && isOnBoard(board, jumped[0], jumped[1]) && isOnBoard(board, end[0], end[1])) {
-    		
-    		//validates for testing
-        	if (restrictToNJumps == true) {
-        		if ((getColor(board, start) != 1 && getColor(board, jumped) != 1) && (getColor(board, start) == getColor(board, jumped))) {
-        			return false;
-        		}
-        	}
-    		
-    		if ((isFilled(board, start) && !isFilled(board, end)) && (isFilled(board, jumped))) {
-    			
-    			
-    			if ((start[0] == jumped[0]) && (end[0] == jumped[0])) {
-    				//if they jump over the same x coordinates
-    				if(((start[1] == jumped[1] - 1) && (end[1] == jumped[1] + 1)) || ((start[1] == jumped[1] + 1) && end[1] == jumped[1] - 1)) {
-    					return true;
-    					
-    				}
-    				
-    			} else if ((start[1] == jumped[1]) && (end[1] == jumped[1])) {
-    				//if they jump over the same y coord
-    				if (((start[0] == jumped[0]-1) && (end[0] == jumped[0]+1)) || ((start[0] == jumped[0]+1 )&& end[0] == jumped[0] - 1)) {
-    					
-    					return true;
-    				}
-    				
-    				
-    			} else if ((start[0] == jumped[0] - 1) && (start[1] == jumped[1]-1) && (end[0] == jumped[0] + 1) && (end[1] == jumped[1] + 1) || (start[0] == jumped[0] + 1) && (start[1] == jumped[1]+1) && (end[0] == jumped[0] - 1) && (end[1] == jumped[1] - 1)) {
-    				return true;
-    			}
-    			
-    		}
-    		
+    	if (!isOnBoard(board, start[0], start[1]) || !isOnBoard(board, end[0], end[1])) {
+    		return false;
     	}
     	
-    	
-    	return false;
+    	int jump = jumps.indexOf(PackedBoard.holeIndex(start[0], start[1]), PackedBoard.holeIndex(end[0], end[1]));
+    	if (jump < 0 || !isOnBoard(board, jumped[0], jumped[1]) || jumps.jumped[jump] != PackedBoard.holeIndex(jumped[0], jumped[1])) {
+    		return false;
+    	}
+    	return engine.isValidMove(new PackedBoard(board, numColors), jump);
     }
     
-    
     //helper method to check if a coordinate is filled
     public boolean isFilled(int[][] board, int[] coord) {
-    	
-    	if (board[coord[1]][coord[0]] == 0) {
-    		return false;
-    	}
-    	return true;
+    	return board[coord[1]][coord[0]] != 0;
     }
     
     //helper method to return num in a space
@@ -277,21 +197,9 @@ public class MulticolorSolver {
     
     //Helper method to check if any pegs are still filled on the board other than the last one.
     public boolean anyPegsLeft(int[][] board) {
-    	int pegCount = 0;
-        for (int[] row : board) {
-            for (int cell : row) {
-                if (cell != 0) {
-                    pegCount++;
-                }
-            }
-        }
-        
-        if (pegCount <= 1) {
-        	return false;
-        }
-        return true;
+    	return engine.anyPegsLeft(new PackedBoard(board, numColors));
     }
-
+    
 
     //Method to print the solution of a given board in console.
     public void printSolution(List<Move> solution, int[][] board) {
@@ -309,7 +217,7 @@ public class MulticolorSolver {
     
     //Method to print solution of a given board in file.
     public void filePrintSolution(List<Move> solution) throws IOException {
-    	BufferedWriter writer = new BufferedWriter(new FileWriter(fileName, true));
+    	BufferedWriter writer = new BufferedWriter(OutputSink.forFile(fileName).newRecord());
     	
     	if(solution == null) {
     		writer.write("no solution found.");
@@ -339,14 +247,9 @@ public class MulticolorSolver {
     	writer.close();
     }
     
-    //Helper method to add a path to another path (used in recursive algorithm).
+    //Helper method to add a path to another path.
     public void pathAdd(List<Move> path, List<Move> subPath) {
-    	
-    	for(Move temp : subPath) {
-    		path.add(temp);
-    	}
-    	
-    	
+    	path.addAll(subPath);
     }
     
     //Helper method that prints a given board, provided as a 2D array.
@@ -372,7 +275,7 @@ public class MulticolorSolver {
     
     //Method to print a specific board to a file.
     public void filePrintBoard(int[][] board) throws IOException {
-    	BufferedWriter writer = new BufferedWriter(new FileWriter(fileName, true));
+    	BufferedWriter writer = new BufferedWriter(OutputSink.forFile(fileName).newRecord());
     	writer.write(generateCodeLookup());
     	writer.newLine();
     	
@@ -407,7 +310,6 @@ public class MulticolorSolver {
         		if (computeVector) {
         			computeVector(board);
         		}
-        		//System.out.println(saxCountForT5());
         		System.out.println();
         		System.out.println();
     		}
@@ -416,6 +318,7 @@ public class MulticolorSolver {
     
     
     //Method to compute the pagoda function parity vector as described by Bell, 2008.
+    //For an even number of colors the vector never changes, which the search uses to rule out boards (see Invariants).
     public int computeVector(int[][] board) {
     	
     	int[][] labeling = new int[board[0].length][board.length];
@@ -453,100 +356,10 @@ public class MulticolorSolver {
     	return 0;
     }
     
-    //Hard-coded function to determine the SAX count for a given board as described by Bell, 2008.
-    //Non-generalizable functionality for larger boards and higher number of colors.
-    public int saxCountForT5() {
-    	int X = 0;
-    	 if(board[0][0] != 0) {
-    		 X++;
-    	 }
-    	 if(board[2][0] != 0) {
-    		 X++;
-    	 }
-    	 if(board[2][2]!= 0) {
-    		 X++;
-    	 }
-    	 if(board[4][0]!= 0) {
-    		 X++;
-    	 }
-    	 if(board[4][2] != 0) {
-    		 X++;
-    	 }
-    	 if(board[4][4] != 0) {
-    		 X++;
-    	 }
-    	 
-    	 int A = 0;
-    	 if(board[2][1] != 0) {
-    		 A++;
-    	 }
-    	 if(board[3][1] != 0) {
-    		 A++;
-    	 }
-    	 if(board[3][2] != 0) {
-    		 A++;
-    	 }
-    	 
-    	int S = 0;
-    	
-    	int pegCount1 = 0;
-    	if(board[1][0] != 0) {
-   		 pegCount1++;
-    	}
-    	if(board[2][0] != 0) {
-      		 pegCount1++;
-       	}
-    	if(board[3][0] != 0) {
-      		 pegCount1++;
-       	}
-    	
-    	if (pegCount1 >=2) {
-    		S++;
-    	}
-    	int pegCount2 = 0;
-    	if(board[4][1] != 0) {
-   		 pegCount2++;
-    	}
-    	if(board[4][2] != 0) {
-      		 pegCount2++;
-       	}
-    	if(board[4][3] != 0) {
-      		 pegCount2++;
-       	}
-    	
-    	if (pegCount2 >=2) {
-    		S++;
-    	}
-    	
-    	int pegCount3 = 0;
-    	if(board[1][1] != 0) {
-   		 pegCount3++;
-    	}
-    	if(board[2][2] != 0) {
-      		 pegCount3++;
-       	}
-    	if(board[3][3] != 0) {
-      		 pegCount3++;
-       	}
-    	
-    	if (pegCount3 >=2) {
-    		S++;
-    	}
-    	
-    	return S + A - X;
-    	
-    }
     
-    //Helper method to check if the 'previousBoards' array contains a copy of the board being assessed
+    //Helper method to check if the latest solve searched the board being assessed, or a rotation or reflection of it.
     public boolean containsCopy(int[][] board) {
-    	boolean contains = false;
-    	for (int[][] x : previousBoards) {
-    		if (Arrays.deepEquals(x, board) == true) {
-    			contains = true;
-    		}
-    	}
-    	
-    	return contains;
+    	return engine.wasSearched(new PackedBoard(board, numColors));
     }
     
     //Helper method to easily return a distinct copy of a board
@@ -573,12 +386,24 @@ public class MulticolorSolver {
     	return s;
     }
     
-    //Helper method to print all previous searched boards.
+    //Returns the measurements of the latest solve, e.g. getStats().toJson().
+    public SearchStats getStats() {
+    	return stats;
+    }
+    
+    //Returns the number of boards searched by the latest single-threaded solve.
+    public int getBoardsSearched() {
+    	return engine.getBoardsSearched();
+    }
+    
+    //Helper method to print all boards searched by the latest solve.
+    //Only one board of each set of symmetric boards is stored, so that is the one printed.
     //Used mainly for debugging.
     public void printPrevious() {
     	System.out.println("\n\nBeginning print previous.");
-    	for (int[][] x : previousBoards) {
-    		printBoard(x);
+    	long[] keys = engine.getSearchedBoards();
+    	for (int k = 0; k < keys.length; k += 2) {
+    		printBoard(new PackedBoard(board.length, numColors, keys[k], keys[k + 1]).toArray());
     	}
     	System.out.println("\n\n\n\nFinished print previous.");
     }
@@ -0,0 +1,237 @@
+package main;
+
+//Necessary imports
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+
+//Long-lived, asynchronous output file shared by every solver writing to it, in place of opening and closing the
+//file for every board. Solvers hand over whole records (a board and its solution) as text, which a single writer
+//thread appends to the file through a large buffer, flushing only once it has caught up with the queue.
+//The queue is bounded, so solvers that outpace the disk wait rather than pile up output in memory.
+//Records from different threads never interleave, and records from one thread are written in the order given.
+//There is one sink per file name. Every sink still open is flushed and closed when the program exits.
+public class OutputSink implements Closeable {
+
+	//Number of records that can be waiting to be written before writers have to wait.
+	private static final int QUEUE_RECORDS = 4096;
+
+	//Size of the file buffer, in characters.
+	private static final int BUFFER_CHARS = 1 << 20;
+
+	//Queued in place of a record to stop the writer thread.
+	private static final String CLOSE = new String();
+
+	//Sinks currently open, keyed by file name.
+	private static final Map<String, OutputSink> sinks = new HashMap<>();
+
+	static {
+		Runtime.getRuntime().addShutdownHook(new Thread(OutputSink::closeAll, "output-sink-shutdown"));
+	}
+
+	private final String fileName;
+
+	private final BufferedWriter writer;
+
+	private final BlockingQueue<String> queue = new ArrayBlockingQueue<>(QUEUE_RECORDS);
+
+	private final Thread thread;
+
+	//Records handed over so far, and records written and flushed so far. Guarded by this.
+	private long queued;
+	private long flushed;
+
+	//Number of threads waiting in flush, so the writer thread flushes even if the queue never empties.
+	private final AtomicInteger flushWaiters = new AtomicInteger();
+
+	//First error hit by the writer thread, after which nothing more is written.
+	private volatile IOException failure;
+
+	private boolean closed;
+
+
+	//Returns the (shared) sink appending to a given file, opening it if needed.
+	public static synchronized OutputSink forFile(String fileName) throws IOException {
+		OutputSink sink = sinks.get(fileName);
+		if (sink == null) {
+			sink = new OutputSink(fileName);
+			sinks.put(fileName, sink);
+		}
+		return sink;
+	}
+
+	//Flushes and closes every sink still open.
+	public static void closeAll() {
+		List<OutputSink> open;
+		synchronized (OutputSink.class) {
+			open = new ArrayList<>(sinks.values());
+		}
+		for (OutputSink sink : open) {
+			try {
+				sink.close();
+			} catch (IOException e) {
+				System.err.println("Failed to write " + sink.fileName + ": " + e.getMessage());
+			}
+		}
+	}
+
+	//Parameterized constructor
+	private OutputSink(String fileName) throws IOException {
+		this.fileName = fileName;
+		this.writer = new BufferedWriter(new FileWriter(fileName, true), BUFFER_CHARS);
+		this.thread = new Thread(this::run, "output-sink");
+		thread.setDaemon(true);
+		thread.start();
+	}
+
+	//Hands a record over to be appended to the file, waiting if the queue is full.
+	public void write(String record) throws IOException {
+		checkFailure();
+		synchronized (this) {
+			if (closed) {
+				throw new IOException(fileName + " has already been closed.");
+			}
+			queued++;
+		}
+		try {
+			queue.put(record);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("Interrupted while waiting to write to " + fileName + ".");
+		}
+	}
+
+	//Returns a writer whose text is handed over as a single record when it is closed.
+	public Writer newRecord() {
+		return new StringWriter() {
+			private boolean written;
+
+			@Override
+			public void close() throws IOException {
+				if (!written) {
+					written = true;
+					OutputSink.this.write(toString());
+				}
+			}
+		};
+	}
+
+	//Waits until every record handed over so far is written and flushed to the file.
+	public void flush() throws IOException {
+		flushWaiters.incrementAndGet();
+		try {
+			synchronized (this) {
+				long target = queued;
+				while (flushed < target && failure == null) {
+					wait();
+				}
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("Interrupted while flushing " + fileName + ".");
+		} finally {
+			flushWaiters.decrementAndGet();
+		}
+		checkFailure();
+	}
+
+	//Flushes and closes the file. The sink cannot be written to afterwards; forFile opens a new one.
+	@Override
+	public void close() throws IOException {
+		synchronized (OutputSink.class) {
+			if (sinks.get(fileName) == this) {
+				sinks.remove(fileName);
+			}
+		}
+		synchronized (this) {
+			if (closed) {
+				return;
+			}
+			closed = true;
+		}
+
+		try {
+			queue.put(CLOSE);
+			thread.join();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("Interrupted while closing " + fileName + ".");
+		}
+		checkFailure();
+	}
+
+	//Helper method to pass on an error hit by the writer thread.
+	private void checkFailure() throws IOException {
+		if (failure != null) {
+			throw new IOException("Failed to write " + fileName + ".", failure);
+		}
+	}
+
+	//Writer thread: takes every record waiting at once, and flushes once the queue is empty (or a flush is waited on).
+	private void run() {
+		List<String> batch = new ArrayList<>();
+		long unflushed = 0;
+		try {
+			while (true) {
+				batch.add(queue.take());
+				queue.drainTo(batch);
+				for (String record : batch) {
+					if (record == CLOSE) {
+						writer.close();
+						markFlushed(unflushed);
+						return;
+					}
+					writer.write(record);
+					unflushed++;
+				}
+				batch.clear();
+
+				if (queue.isEmpty() || flushWaiters.get() > 0) {
+					writer.flush();
+					markFlushed(unflushed);
+					unflushed = 0;
+				}
+			}
+		} catch (IOException e) {
+			failure = e;
+			synchronized (this) {
+				notifyAll();
+			}
+			try {
+				writer.close();
+			} catch (IOException ignored) {
+				//Already failing; the first error is the one passed on.
+			}
+			//Writers still waiting on a full queue are let through; nothing more is written.
+			while (true) {
+				try {
+					if (queue.take() == CLOSE) {
+						return;
+					}
+				} catch (InterruptedException interrupted) {
+					return;
+				}
+			}
+		} catch (InterruptedException e) {
+			return;
+		}
+	}
+
+	//Helper method to record that a number of records reached the file, waking any thread waiting in flush.
+	private synchronized void markFlushed(long records) {
+		flushed += records;
+		notifyAll();
+	}
+}
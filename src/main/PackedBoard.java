@@ -0,0 +1,258 @@
+package main;
+
+//Necessary imports
+import java.util.Arrays;
+
+
+//Compact representation of a triangle board, used by the solvers in place of a 2D array.
+//Each hole's color is packed into a fixed number of bits (ceil(log2(numColors)), so 2 bits in three colors)
+//inside two longs. Holes are numbered top to bottom, left to right, the same order as generateCodeLookup:
+//the hole at skew-coordinates (x, y) has index y*(y+1)/2 + x.
+//A hole never straddles the two words, so a board of h holes fits as long as h <= 2 * (64 / bits).
+//Because the whole board is two longs, copying, comparing and hashing a board are all constant time,
+//and a move can be undone by restoring the two words saved before it.
+//The board also keeps the number of holes of each color (and so the number of pegs) up to date as moves
+//are applied and undone, so the solvers never scan the board to count pegs.
+public class PackedBoard {
+
+	//Number of rows in the triangle
+	private final int size;
+
+	//Number of holes on the board
+	private final int holes;
+
+	//Number of colors on the board
+	private final int numColors;
+
+	//Bits per hole, and the mask for a single hole
+	private final int bits;
+	private final long holeMask;
+
+	//Number of holes that fit into each word
+	private final int perWord;
+
+	//Lookup table for the color of a jumped peg: jumpResult[start * numColors + jumped] = (start + jumped) % numColors
+	private final int[] jumpResult;
+
+	//Lookup table for undoing a jump: jumpUndo[start * numColors + result] = (result - start) mod numColors,
+	//the color the jumped peg had before the jump.
+	private final int[] jumpUndo;
+
+	//The packed holes
+	private long low;
+	private long high;
+
+	//Number of holes of each color; colorCounts[0] is the number of empty holes.
+	//Sized for every value a hole's bits can hold, since CanonicalKeys packs raw bit patterns into boards.
+	private final int[] colorCounts;
+
+
+	//Parameterized constructor
+	//Creates an empty board of the given size and number of colors.
+	public PackedBoard(int size, int numColors) {
+		this.size = size;
+		this.holes = size * (size + 1) / 2;
+		this.numColors = numColors;
+		this.bits = Math.max(1, 32 - Integer.numberOfLeadingZeros(numColors - 1));
+		this.holeMask = (1L << bits) - 1;
+		this.perWord = 64 / bits;
+
+		if (holes > 2 * perWord) {
+			throw new IllegalArgumentException("Board of size " + size + " in " + numColors + " colors is too large to pack into a 128-bit key.");
+		}
+
+		this.jumpResult = new int[numColors * numColors];
+		this.jumpUndo = new int[numColors * numColors];
+		for (int s = 0; s < numColors; s++) {
+			for (int c = 0; c < numColors; c++) {
+				jumpResult[s * numColors + c] = (s + c) % numColors;
+				jumpUndo[s * numColors + c] = (c - s + numColors) % numColors;
+			}
+		}
+
+		this.colorCounts = new int[1 << bits];
+		colorCounts[0] = holes;
+	}
+
+	//Parameterized constructor
+	//Packs a board stored in the usual left-aligned 2D format.
+	public PackedBoard(int[][] board, int numColors) {
+		this(board.length, numColors);
+		for (int i = 0; i < board.length; i++) {
+			for (int j = 0; j <= i; j++) {
+				set(holeIndex(j, i), board[i][j]);
+			}
+		}
+	}
+
+	//Parameterized constructor
+	//Rebuilds a board from its two packed words.
+	public PackedBoard(int size, int numColors, long low, long high) {
+		this(size, numColors);
+		restore(low, high);
+	}
+
+	//Copy constructor
+	private PackedBoard(PackedBoard other) {
+		this.size = other.size;
+		this.holes = other.holes;
+		this.numColors = other.numColors;
+		this.bits = other.bits;
+		this.holeMask = other.holeMask;
+		this.perWord = other.perWord;
+		this.jumpResult = other.jumpResult;
+		this.jumpUndo = other.jumpUndo;
+		this.low = other.low;
+		this.high = other.high;
+		this.colorCounts = other.colorCounts.clone();
+	}
+
+	//Helper method to convert skew-coordinates (x, y) into a hole index.
+	public static int holeIndex(int x, int y) {
+		return y * (y + 1) / 2 + x;
+	}
+
+	//Returns the color in a given hole (0 if empty).
+	public int get(int hole) {
+		if (hole < perWord) {
+			return (int) ((low >>> (hole * bits)) & holeMask);
+		}
+		return (int) ((high >>> ((hole - perWord) * bits)) & holeMask);
+	}
+
+	//Returns the color at skew-coordinates (x, y).
+	public int get(int x, int y) {
+		return get(holeIndex(x, y));
+	}
+
+	//Sets the color in a given hole.
+	public void set(int hole, int color) {
+		colorCounts[get(hole)]--;
+		colorCounts[color]++;
+		write(hole, color);
+	}
+
+	//Helper method to write the color of a hole into its word, leaving the counts to the caller.
+	private void write(int hole, int color) {
+		if (hole < perWord) {
+			int shift = hole * bits;
+			low = (low & ~(holeMask << shift)) | ((long) color << shift);
+		} else {
+			int shift = (hole - perWord) * bits;
+			high = (high & ~(holeMask << shift)) | ((long) color << shift);
+		}
+	}
+
+	//Checks whether a hole holds a peg.
+	public boolean isFilled(int hole) {
+		return get(hole) != 0;
+	}
+
+	//Applies a jump: the starting peg moves to the (empty) end hole, and the jumped peg
+	//takes the color (start + jumped) % numColors, vanishing if that is 0.
+	//Only the jumped peg changes color, so only two counts change.
+	public void applyMove(int start, int jumped, int end) {
+		int color = get(start);
+		int before = get(jumped);
+		int after = jumpResult[color * numColors + before];
+		write(jumped, after);
+		write(end, color);
+		write(start, 0);
+		colorCounts[before]--;
+		colorCounts[after]++;
+	}
+
+	//Undoes a jump applied by applyMove, which must be the latest jump played on the board.
+	//The jumped peg's old color follows from its new color and the color of the peg that jumped,
+	//so nothing needs to be saved before the jump.
+	public void undoMove(int start, int jumped, int end) {
+		int color = get(end);
+		int after = get(jumped);
+		int before = jumpUndo[color * numColors + after];
+		write(start, color);
+		write(end, 0);
+		write(jumped, before);
+		colorCounts[after]--;
+		colorCounts[before]++;
+	}
+
+	//Returns the number of pegs on the board.
+	public int pegCount() {
+		return holes - colorCounts[0];
+	}
+
+	//Returns the number of holes of a given color (or the number of empty holes, for color 0).
+	public int colorCount(int color) {
+		return colorCounts[color];
+	}
+
+	//Returns a distinct copy of the board.
+	public PackedBoard copy() {
+		return new PackedBoard(this);
+	}
+
+	//Returns the board in the usual left-aligned 2D format.
+	public int[][] toArray() {
+		int[][] board = new int[size][size];
+		for (int i = 0; i < size; i++) {
+			for (int j = 0; j <= i; j++) {
+				board[i][j] = get(holeIndex(j, i));
+			}
+		}
+		return board;
+	}
+
+	//Reduces the board to a single string, in the same format as generateCodeLookup.
+	public String toCode() {
+		StringBuilder s = new StringBuilder(holes);
+		for (int h = 0; h < holes; h++) {
+			s.append(get(h));
+		}
+		return s.toString();
+	}
+
+	//Restores both words, e.g. to return to an earlier board.
+	//The counts are rebuilt from scratch, so use undoMove to take back a single jump.
+	public void restore(long low, long high) {
+		this.low = low;
+		this.high = high;
+		Arrays.fill(colorCounts, 0);
+		for (int h = 0; h < holes; h++) {
+			colorCounts[get(h)]++;
+		}
+	}
+
+	public long getLow() {
+		return low;
+	}
+
+	public long getHigh() {
+		return high;
+	}
+
+	public int getSize() {
+		return size;
+	}
+
+	public int getHoles() {
+		return holes;
+	}
+
+	public int getNumColors() {
+		return numColors;
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		if (!(o instanceof PackedBoard)) {
+			return false;
+		}
+		PackedBoard other = (PackedBoard) o;
+		return low == other.low && high == other.high && size == other.size && numColors == other.numColors;
+	}
+
+	@Override
+	public int hashCode() {
+		return TranspositionTable.hash(low, high);
+	}
+}
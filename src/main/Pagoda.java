@@ -0,0 +1,185 @@
+package main;
+
+//Necessary imports
+import java.util.HashMap;
+import java.util.Map;
+
+
+//Pagoda functions: weightings of the holes such that no jump can raise the total weight of the pegs on a board.
+//If the pegs on a board weigh less than the single peg it would have to finish with, that finish is out of reach.
+//Weightings are derived for any size of board. The weighting toward a hole h gives each hole the Fibonacci
+//number F(size + 1 - d), where d is its distance to h. A jump that ends one step closer to h lands on
+//F(k + 1) = F(k) + F(k - 1), which is exactly the weight of the two pegs it used up, and any other jump
+//lands on no more than the peg it jumped over.
+//
+//This only holds when every jump removes the peg it jumps over, which is the case in two colors.
+//With more colors, a weighting may depend on the color of the peg as well as its hole, w(h, c), with empty holes
+//weighing 0 (any other weight for empty holes shifts every board, and the finishing peg, by the same amount).
+//A jump from a over b to e, by a peg of color s over a peg of color j, leaves color r = (s + j) mod numColors at b,
+//so it must have w(e, s) + w(b, r) <= w(a, s) + w(b, j), and the jump back from e to a the same with a and e
+//swapped. Adding the two gives w(b, r) <= w(b, j), and with jumps of every color allowed:
+//		Any two colors j and k can be taken to each other (s = k - j), so w(b, j) = w(b, k): a hole that can be
+//		jumped over weighs the same under every color, and, taking r = 0, no less than an empty hole.
+//		For each s there is a j with r not 0, since only one of the two or more colors j gives r = 0.
+//		Then w(b, r) = w(b, j), so w(a, s) = w(e, s): a peg weighs the same at both ends of every jump.
+//So every weighting is the same for every color and constant over the holes a peg can move between (within its
+//lattice class, see Invariants), and never negative. Pegs never leave those holes, so the finishing peg sits
+//among pegs already on the board, which weigh at least as much as it does: for three or more colors no pagoda
+//function can rule out a board, and this check always passes. (With jumps restricted to 110 and 1(n-1)0, fewer
+//jumps constrain the weighting and the argument above does not hold, but no weightings are derived either.)
+//
+//The finishing peg can only be a peg already on the board, moved within its lattice class, and for two colors
+//has to sit in the Bell class picked out by the parity vector (see Invariants), so only holes of those
+//classes are tried. Each peg weighs at least 1 under every weighting, so a board with as many pegs as the
+//finishing peg weighs always passes without being weighed.
+public class Pagoda {
+
+	//Weightings derived so far, keyed by board size and number of colors.
+	private static final Map<Long, Pagoda> cache = new HashMap<>();
+
+	//In two colors each hole is a single bit, so sets of holes are masks over the two words of a board.
+	//ringLow[h][d] and ringHigh[h][d] hold the holes at distance d from hole h, so the weight of the pegs under
+	//the weighting toward h is the sum of F(size + 1 - d) times the number of pegs in each ring.
+	//Null for three or more colors.
+	private final long[][] ringLow;
+	private final long[][] ringHigh;
+
+	//fibonacci[k] is F(k), the weight of a hole at distance size + 1 - k.
+	private final int[] fibonacci;
+
+	//Weight of the finishing peg under the weighting toward its own hole.
+	private final int finish;
+
+	//Holes of each Bell class (x + y) mod 3, and of each pair of Bell class and lattice class (x mod 2, y mod 2).
+	private final long[] bellLow = new long[3];
+	private final long[] bellHigh = new long[3];
+	private final long[] latticeLow = new long[4];
+	private final long[] latticeHigh = new long[4];
+	private final long[][] classLow = new long[3][4];
+	private final long[][] classHigh = new long[3][4];
+
+	private final int holes;
+
+
+	//Returns the (shared) weightings for a given board size and number of colors, deriving them if needed.
+	public static synchronized Pagoda forBoard(int size, int numColors) {
+		return cache.computeIfAbsent(((long) size << 32) | numColors, k -> new Pagoda(size, numColors));
+	}
+
+	//Parameterized constructor
+	private Pagoda(int size, int numColors) {
+		this.holes = size * (size + 1) / 2;
+		this.fibonacci = new int[size + 2];
+		fibonacci[1] = 1;
+		for (int k = 2; k < fibonacci.length; k++) {
+			fibonacci[k] = fibonacci[k - 1] + fibonacci[k - 2];
+		}
+		this.finish = fibonacci[size + 1];
+
+		if (numColors != 2) {
+			this.ringLow = null;
+			this.ringHigh = null;
+			return;
+		}
+
+		this.ringLow = new long[holes][size];
+		this.ringHigh = new long[holes][size];
+		for (int y = 0; y < size; y++) {
+			for (int x = 0; x <= y; x++) {
+				int hole = PackedBoard.holeIndex(x, y);
+				int bell = (x + y) % 3;
+				int lattice = (x % 2) * 2 + (y % 2);
+				if (hole < 64) {
+					bellLow[bell] |= 1L << hole;
+					latticeLow[lattice] |= 1L << hole;
+					classLow[bell][lattice] |= 1L << hole;
+				} else {
+					bellHigh[bell] |= 1L << (hole - 64);
+					latticeHigh[lattice] |= 1L << (hole - 64);
+					classHigh[bell][lattice] |= 1L << (hole - 64);
+				}
+
+				for (int y2 = 0; y2 < size; y2++) {
+					for (int x2 = 0; x2 <= y2; x2++) {
+						int other = PackedBoard.holeIndex(x2, y2);
+						int d = distance(x2 - x, y2 - y);
+						if (other < 64) {
+							ringLow[hole][d] |= 1L << other;
+						} else {
+							ringHigh[hole][d] |= 1L << (other - 64);
+						}
+					}
+				}
+			}
+		}
+	}
+
+	//Helper method to find the number of steps between two holes, given the difference of their skew-coordinates.
+	//Steps go along the three directions (1, 0), (0, 1) and (1, 1).
+	private static int distance(int dx, int dy) {
+		if ((dx >= 0) == (dy >= 0)) {
+			return Math.max(Math.abs(dx), Math.abs(dy));
+		}
+		return Math.abs(dx) + Math.abs(dy);
+	}
+
+	//Checks whether the pegs on a board weigh enough, under some weighting, to finish with a single peg.
+	//Returns false only for boards that cannot be solved.
+	public boolean canFinish(PackedBoard board) {
+		if (ringLow == null) {
+			return true;
+		}
+		int pegs = board.pegCount();
+		if (pegs <= 1 || pegs >= finish) {
+			return true;
+		}
+		long low = board.getLow();
+		long high = board.getHigh();
+
+		//The finishing peg sits in the Bell class whose parity differs from the other two.
+		//If all three agree, the parity vector is zero and no single peg can be left (see Invariants).
+		int parity0 = (Long.bitCount(low & bellLow[0]) + Long.bitCount(high & bellHigh[0])) & 1;
+		int parity1 = (Long.bitCount(low & bellLow[1]) + Long.bitCount(high & bellHigh[1])) & 1;
+		int parity2 = (Long.bitCount(low & bellLow[2]) + Long.bitCount(high & bellHigh[2])) & 1;
+		int finishClass;
+		if (parity0 == parity1) {
+			if (parity1 == parity2) {
+				return false;
+			}
+			finishClass = 2;
+		} else {
+			finishClass = (parity0 == parity2) ? 1 : 0;
+		}
+
+		//Candidate holes: the finishing class, within the lattice classes that still hold a peg.
+		long candidatesLow = 0;
+		long candidatesHigh = 0;
+		for (int lattice = 0; lattice < 4; lattice++) {
+			if ((low & latticeLow[lattice]) != 0 || (high & latticeHigh[lattice]) != 0) {
+				candidatesLow |= classLow[finishClass][lattice];
+				candidatesHigh |= classHigh[finishClass][lattice];
+			}
+		}
+
+		while (candidatesLow != 0 || candidatesHigh != 0) {
+			int h;
+			if (candidatesLow != 0) {
+				h = Long.numberOfTrailingZeros(candidatesLow);
+				candidatesLow &= candidatesLow - 1;
+			} else {
+				h = 64 + Long.numberOfTrailingZeros(candidatesHigh);
+				candidatesHigh &= candidatesHigh - 1;
+			}
+
+			int weight = 0;
+			int top = fibonacci.length - 1;
+			for (int d = 0; d < ringLow[h].length; d++) {
+				weight += fibonacci[top - d] * (Long.bitCount(low & ringLow[h][d]) + Long.bitCount(high & ringHigh[h][d]));
+			}
+			if (weight >= finish) {
+				return true;
+			}
+		}
+		return false;
+	}
+}
@@ -0,0 +1,283 @@
+package main;
+
+//Necessary imports
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountedCompleter;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicReference;
+
+
+//Parallel version of the MulticolorSolver search, for single boards too large to solve in one thread.
+//The depth-first search is split into fork/join tasks: whenever the pool is short of queued work, a worker
+//hands the subtree below its next move to a new task instead of searching it itself, and idle workers steal it.
+//All tasks share one ConcurrentTranspositionTable, so each board is searched by exactly one thread.
+//As soon as any task reaches a solved board, every other task stops at its next node.
+//Each task searches with an explicit stack rather than recursion, since worker threads cannot be given larger stacks,
+//and tasks never wait on each other: the pool finishes once every task forked from the root has completed.
+public class ParallelSolver {
+
+	//Tasks are forked while the current worker has fewer than this many tasks queued for others to steal.
+	private static final int SPLIT_THRESHOLD = 2;
+
+	private final JumpTable jumps;
+
+	//Rules of the search: valid jumps, symmetric keys and the tablebase (see SolverEngine).
+	private final SolverEngine engine;
+
+	private final int threads;
+
+	//Boards searched by the latest solve, shared by every task, under keys shared by their rotations and reflections.
+	private ConcurrentTranspositionTable previousBoards = new ConcurrentTranspositionTable();
+
+	//Set once any task finds a solution; every task checks it at each node.
+	private volatile boolean solved = false;
+
+	//Jump indices of the first solution found.
+	private final AtomicReference<int[]> solution = new AtomicReference<>();
+
+	//Measurements of the latest solve, merged from every task as it finishes.
+	private SearchStats stats = new SearchStats();
+
+
+	//Parameterized constructor
+	//Takes in the board size, number of colors, jump restriction and number of worker threads.
+	public ParallelSolver(int size, int numColors, boolean restrictToNJumps, int threads) {
+		this(new SolverEngine(size, numColors, restrictToNJumps), threads);
+	}
+
+	//Parameterized constructor
+	//Searches with the rules (and tablebase, if any) of an engine, and the given number of worker threads.
+	//Only the engine's configuration is used, never its search state, so it may be shared.
+	public ParallelSolver(SolverEngine engine, int threads) {
+		this.jumps = engine.getJumps();
+		this.engine = engine;
+		this.threads = threads;
+	}
+
+	//Searches a board in parallel.
+	//Returns the solution path, or null if the board cannot be solved.
+	//The result is added to the engine's tablebase, if there is one.
+	public List<Move> solve(int[][] board) throws IOException {
+		previousBoards = new ConcurrentTranspositionTable();
+		solved = false;
+		solution.set(null);
+		stats = new SearchStats();
+		stats.start();
+
+		PackedBoard start = new PackedBoard(board, engine.getNumColors());
+		long[] key = new long[2];
+		engine.canonicalize(start, key);
+		previousBoards.add(key[0], key[1]);
+
+		if (engine.canFinish(start)) {
+			ForkJoinPool pool = new ForkJoinPool(threads);
+			try {
+				pool.invoke(new SearchTask(null, start.copy(), new int[0]));
+			} finally {
+				pool.shutdown();
+			}
+		} else {
+			stats.cutoff();
+		}
+
+		int[] found = solution.get();
+		stats.finish(found != null);
+		stats.commitEvent(engine.getSize(), engine.getNumColors(), threads);
+
+		engine.record(start, found, found == null ? previousBoards.toArray() : null);
+		if (found == null) {
+			return null;
+		}
+
+		List<Move> path = new ArrayList<>(found.length);
+		for (int jump : found) {
+			path.add(jumps.getMove(jump));
+		}
+		return path;
+	}
+
+	//Returns the measurements of the latest solve.
+	public SearchStats getStats() {
+		return stats;
+	}
+
+	//Returns the number of boards searched.
+	public int getBoardsSearched() {
+		return previousBoards.size();
+	}
+
+	//Returns the symmetric key of every board searched, as alternating low and high words.
+	public long[] getSearchedBoards() {
+		return previousBoards.toArray();
+	}
+
+
+	//A subtree of the search: the board below a given path of jumps.
+	//The task searches depth-first on its own copy of the board, forking off subtrees as it goes.
+	//Depths are counted from the task's own board; the jumps leading to it are kept as a chain of
+	//short segments through the parent tasks, so forking never copies the whole path.
+	private class SearchTask extends CountedCompleter<Void> {
+
+		private static final long serialVersionUID = 1L;
+
+		private final PackedBoard board;
+
+		//Jumps from the parent task's board to this task's board.
+		private final int[] prefix;
+
+		//Depth of the task's board below the starting board, for the measurements.
+		private final int baseDepth;
+
+		//Measurements of this task alone, merged into the solve's once it finishes.
+		private final SearchStats taskStats = new SearchStats();
+
+		//Jumps played from the task's board; path[0..depth) is the path to the current board.
+		private int[] path;
+
+		//Next jump to try at each depth.
+		private int[] nextJump;
+
+		//Symmetric key of the board being looked up.
+		private long[] key;
+
+		SearchTask(SearchTask parent, PackedBoard board, int[] prefix) {
+			super(parent);
+			this.board = board;
+			this.prefix = prefix;
+			this.baseDepth = (parent == null) ? 0 : parent.baseDepth + prefix.length;
+		}
+
+		@Override
+		public void compute() {
+			path = new int[16];
+			nextJump = new int[16];
+			key = new long[2];
+
+			search();
+			stats.merge(taskStats);
+
+			//Only the prefix is needed by the tasks forked from here.
+			path = null;
+			nextJump = null;
+			key = null;
+			tryComplete();
+		}
+
+		//Depth-first search from the task's board.
+		//Jumps are grouped by jumped hole in the jump table, so trying them in index order visits the pegs
+		//top to bottom, left to right. The engine's move ordering is not used: the split of work between
+		//tasks only relies on which jumps are already tried, and that is simplest in table order.
+		private void search() {
+			int depth = 0;
+			nextJump[depth] = 0;
+
+			taskStats.expand(baseDepth);
+			if (isSolved(depth)) {
+				return;
+			}
+
+			while (!solved) {
+				int jump = nextJump[depth];
+				boolean descended = false;
+
+				for (; jump < jumps.count; jump++) {
+					if (!engine.isValidMove(board, jump)) {
+						continue;
+					}
+
+					board.applyMove(jumps.start[jump], jumps.jumped[jump], jumps.end[jump]);
+
+					boolean novel = false;
+					int g = 0;
+					if (engine.isDead(board)) {
+						taskStats.cutoff(baseDepth + depth);
+					} else {
+						g = engine.canonicalize(board, key);
+						novel = previousBoards.add(key[0], key[1]);
+						taskStats.generate(baseDepth + depth, !novel);
+						if (novel && !engine.canStillFinish(board)) {
+							taskStats.cutoff();
+							novel = false;
+						}
+					}
+					if (novel && engine.lookup(key[0], key[1], g) == Tablebase.UNSOLVABLE) {
+						taskStats.tablebaseHit();
+						novel = false;
+					}
+
+					if (novel) {
+						path[depth] = jump;
+
+						if (ForkJoinTask.getSurplusQueuedTaskCount() < SPLIT_THRESHOLD) {
+							addToPendingCount(1);
+							new SearchTask(this, board.copy(), Arrays.copyOf(path, depth + 1)).fork();
+						} else {
+							nextJump[depth] = jump + 1;
+							depth++;
+							grow(depth);
+							nextJump[depth] = 0;
+							descended = true;
+							break;
+						}
+					}
+
+					board.undoMove(jumps.start[jump], jumps.jumped[jump], jumps.end[jump]);
+				}
+
+				if (descended) {
+					taskStats.expand(baseDepth + depth);
+					if (isSolved(depth)) {
+						return;
+					}
+				} else {
+					//No jumps left at this depth: back out of the jump that led here.
+					if (depth == 0) {
+						return;
+					}
+					depth--;
+					int last = path[depth];
+					board.undoMove(jumps.start[last], jumps.jumped[last], jumps.end[last]);
+				}
+			}
+		}
+
+		//Checks whether the current board is solved, and if so records the full path to it.
+		private boolean isSolved(int depth) {
+			if (board.pegCount() <= 1) {
+				List<int[]> segments = new ArrayList<>();
+				segments.add(Arrays.copyOf(path, depth));
+				int length = depth;
+				for (SearchTask task = this; task != null; task = (SearchTask) task.getCompleter()) {
+					segments.add(0, task.prefix);
+					length += task.prefix.length;
+				}
+
+				int[] found = new int[length];
+				int k = 0;
+				for (int[] segment : segments) {
+					System.arraycopy(segment, 0, found, k, segment.length);
+					k += segment.length;
+				}
+
+				if (solution.compareAndSet(null, found)) {
+					solved = true;
+				}
+				return true;
+			}
+			return false;
+		}
+
+		//Helper method to make room for one more level of the stack.
+		private void grow(int depth) {
+			if (depth == path.length) {
+				int length = path.length * 2;
+				path = Arrays.copyOf(path, length);
+				nextJump = Arrays.copyOf(nextJump, length);
+			}
+		}
+	}
+}
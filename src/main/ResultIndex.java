@@ -0,0 +1,338 @@
+package main;
+
+//Necessary imports
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+
+//Memory-mapped index of a result file written by ResultWriter, so that a single board's result can be looked up
+//without reading through the whole file.
+//The index is an open-addressed hash table of (low word, high word, entry) slots, like Tablebase, in a file next to
+//the results (e.g. "solutions.bin.idx"). Boards are stored under their symmetric keys (see CanonicalKeys), so a
+//lookup also finds the result of a rotation or reflection of the board (as when the sweep skipped equivalent
+//boards), and turns its solution around to fit the board asked about. Each entry is the position of the board's
+//record in the result file plus one (0 if the slot is empty).
+//A lookup is one probe of the mapped table and one read of a short record, a few microseconds.
+//Lookups are synchronized, so an index can be shared between threads.
+//To look boards up from the command line, by the code of each board (see MultiboardSolver.codeLookup):
+//java main.ResultIndex solutions.bin 011111111111112
+public class ResultIndex implements Closeable {
+
+	//Returned by lookup for boards that are not in the results.
+	public static final int NOT_FOUND = -2;
+
+	//Returned by lookup for boards that cannot be solved.
+	public static final int UNSOLVABLE = -1;
+
+	//Identifies an index file, and the version of its layout.
+	private static final long MAGIC = 0x5045475249445800L;
+	private static final int VERSION = 1;
+
+	//Header layout: magic, version, size, colors, capacity, then the number of entries and the length of the
+	//result file indexed.
+	private static final int HEADER_BYTES = 64;
+	private static final int CAPACITY_OFFSET = 20;
+	private static final int COUNT_OFFSET = 24;
+	private static final int LENGTH_OFFSET = 32;
+
+	//Each slot holds the two words of a key and its entry.
+	private static final int SLOT_BYTES = 24;
+
+	//Most slots a single mapping can hold. A power of two, like every capacity.
+	private static final int MAX_CAPACITY = 1 << 26;
+
+	//Bytes read ahead from the result file for each lookup; enough for a whole record on boards up to T9.
+	private static final int READ_BYTES = 128;
+
+	private final FileChannel results;
+	private final MappedByteBuffer buffer;
+
+	private final int capacity;
+	private final long count;
+
+	private final int size;
+	private final int numColors;
+
+	private final CanonicalKeys canonicalKeys;
+	private final Symmetry symmetry;
+	private final JumpTable jumps;
+
+	//Bytes stored of each board's low and high words, and bytes per jump (see ResultWriter).
+	private final int lowBytes;
+	private final int highBytes;
+	private final int jumpBytes;
+
+
+	//Opens the index of a result file, building it first if it is missing or older than the results.
+	public static ResultIndex open(Path results) throws IOException {
+		Path index = fileName(results);
+		if (!isCurrent(results, index)) {
+			build(results, index);
+		}
+
+		FileChannel resultChannel = FileChannel.open(results, StandardOpenOption.READ);
+		try (FileChannel indexChannel = FileChannel.open(index, StandardOpenOption.READ)) {
+			return new ResultIndex(resultChannel, indexChannel.map(FileChannel.MapMode.READ_ONLY, 0, indexChannel.size()), index);
+		} catch (IOException | RuntimeException e) {
+			resultChannel.close();
+			throw e;
+		}
+	}
+
+	//Returns the usual index file of a result file, e.g. "solutions.bin.idx".
+	public static Path fileName(Path results) {
+		return results.resolveSibling(results.getFileName() + ".idx");
+	}
+
+	//Checks whether an index file exists and covers the whole of a result file.
+	public static boolean isCurrent(Path results, Path index) throws IOException {
+		if (!Files.exists(index) || Files.size(index) < HEADER_BYTES) {
+			return false;
+		}
+		try (FileChannel channel = FileChannel.open(index, StandardOpenOption.READ)) {
+			MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_BYTES);
+			return header.getLong(0) == MAGIC && header.getInt(8) == VERSION && header.getLong(LENGTH_OFFSET) == Files.size(results);
+		}
+	}
+
+	//Builds the index of a result file, replacing any index already in the given file.
+	//Returns the number of boards indexed.
+	public static long build(Path results, Path index) throws IOException {
+		long records = 0;
+		int size;
+		int numColors;
+		try (ResultReader reader = new ResultReader(results)) {
+			size = reader.getSize();
+			numColors = reader.getNumColors();
+			while (reader.next()) {
+				records++;
+			}
+		}
+
+		int capacity = 1;
+		while (capacity < 2 * records) {
+			if (capacity == MAX_CAPACITY) {
+				throw new IOException("Too many boards in " + results + " to index.");
+			}
+			capacity <<= 1;
+		}
+
+		CanonicalKeys canonicalKeys = CanonicalKeys.forBoard(size, numColors);
+		long[] key = new long[2];
+		long count = 0;
+		try (FileChannel channel = FileChannel.open(index, StandardOpenOption.CREATE, StandardOpenOption.READ,
+				StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+				ResultReader reader = new ResultReader(results)) {
+			MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_BYTES + (long) capacity * SLOT_BYTES);
+			int mask = capacity - 1;
+			while (reader.next()) {
+				PackedBoard board = reader.getBoard();
+				canonicalKeys.canonicalize(board.getLow(), board.getHigh(), key);
+				int slot = TranspositionTable.hash(key[0], key[1]) & mask;
+				while (true) {
+					int offset = HEADER_BYTES + slot * SLOT_BYTES;
+					if (buffer.getLong(offset + 16) == 0) {
+						buffer.putLong(offset, key[0]);
+						buffer.putLong(offset + 8, key[1]);
+						buffer.putLong(offset + 16, reader.getOffset() + 1);
+						count++;
+						break;
+					}
+					//A board equivalent to one already indexed has the same result; the first is kept.
+					if (buffer.getLong(offset) == key[0] && buffer.getLong(offset + 8) == key[1]) {
+						break;
+					}
+					slot = (slot + 1) & mask;
+				}
+			}
+
+			//The magic number goes in last, so an index that was never finished is never used.
+			buffer.putInt(8, VERSION);
+			buffer.putInt(12, size);
+			buffer.putInt(16, numColors);
+			buffer.putInt(CAPACITY_OFFSET, capacity);
+			buffer.putLong(COUNT_OFFSET, count);
+			buffer.putLong(LENGTH_OFFSET, Files.size(results));
+			buffer.putLong(0, MAGIC);
+			buffer.force();
+		}
+		return count;
+	}
+
+	//Parameterized constructor
+	private ResultIndex(FileChannel results, MappedByteBuffer buffer, Path index) throws IOException {
+		this.results = results;
+		this.buffer = buffer;
+		if (buffer.capacity() < HEADER_BYTES || buffer.getLong(0) != MAGIC || buffer.getInt(8) != VERSION) {
+			throw new IOException(index + " is not a result index, or was written by another version.");
+		}
+		this.size = buffer.getInt(12);
+		this.numColors = buffer.getInt(16);
+		this.capacity = buffer.getInt(CAPACITY_OFFSET);
+		this.count = buffer.getLong(COUNT_OFFSET);
+
+		this.canonicalKeys = CanonicalKeys.forBoard(size, numColors);
+		this.symmetry = Symmetry.forSize(size);
+		this.jumps = JumpTable.forSize(size);
+		this.lowBytes = ResultWriter.lowBytes(size, numColors);
+		this.highBytes = ResultWriter.highBytes(size, numColors);
+		this.jumpBytes = ResultWriter.jumpBytes(size);
+	}
+
+	//Looks up a board.
+	//Returns NOT_FOUND, UNSOLVABLE, or for a solvable board the number of jumps in its solution.
+	public synchronized int lookup(PackedBoard board) throws IOException {
+		long offset = find(board);
+		if (offset < 0) {
+			return NOT_FOUND;
+		}
+		int[] solution = read(offset, null);
+		return (solution == null) ? UNSOLVABLE : solution.length;
+	}
+
+	//Returns the solution of a board as jumps from the jump table, or null if it cannot be solved or is not
+	//in the results.
+	public synchronized int[] getSolution(PackedBoard board) throws IOException {
+		long[] key = new long[2];
+		int g = canonicalKeys.canonicalize(board.getLow(), board.getHigh(), key);
+		long offset = find(key[0], key[1]);
+		if (offset < 0) {
+			return null;
+		}
+
+		//The board recorded may be a rotation or reflection of the one asked about; its jumps are carried
+		//over to the key, then back from the key to the board.
+		long[] stored = new long[2];
+		int[] solution = read(offset, stored);
+		if (solution == null) {
+			return null;
+		}
+		int[] image = symmetry.images[canonicalKeys.canonicalize(stored[0], stored[1], key)];
+		int[] inverse = symmetry.inverses[g];
+		for (int i = 0; i < solution.length; i++) {
+			int jump = solution[i];
+			solution[i] = jumps.indexOf(inverse[image[jumps.start[jump]]], inverse[image[jumps.end[jump]]]);
+		}
+		return solution;
+	}
+
+	//Returns the number of boards indexed, up to symmetry.
+	public long size() {
+		return count;
+	}
+
+	@Override
+	public synchronized void close() throws IOException {
+		results.close();
+	}
+
+	public int getSize() {
+		return size;
+	}
+
+	public int getNumColors() {
+		return numColors;
+	}
+
+	//Looks up boards by their codes: java main.ResultIndex <result file> <board code>...
+	public static void main(String[] args) throws IOException {
+		if (args.length < 2) {
+			System.out.println("Usage: java main.ResultIndex <result file> <board code>...");
+			return;
+		}
+
+		try (ResultIndex index = open(Paths.get(args[0]))) {
+			int holes = index.jumps.holes;
+			for (int a = 1; a < args.length; a++) {
+				String code = args[a];
+				if (code.length() != holes) {
+					System.out.println(code + ": a board of size " + index.size + " has " + holes + " holes.");
+					continue;
+				}
+
+				PackedBoard board = new PackedBoard(index.size, index.numColors);
+				for (int h = 0; h < holes; h++) {
+					int color = Character.digit(code.charAt(h), 10);
+					if (color < 0 || color >= index.numColors) {
+						board = null;
+						break;
+					}
+					board.set(h, color);
+				}
+				if (board == null) {
+					System.out.println(code + ": colors must be digits from 0 to " + (index.numColors - 1) + ".");
+					continue;
+				}
+
+				long startTime = System.nanoTime();
+				int status = index.lookup(board);
+				int[] solution = index.getSolution(board);
+				long endTime = System.nanoTime();
+
+				if (status == NOT_FOUND) {
+					System.out.println(code + ": not in the results.");
+				} else {
+					List<List<int[]>> path = null;
+					if (solution != null) {
+						path = new ArrayList<>(solution.length);
+						for (int jump : solution) {
+							Move move = index.jumps.getMove(jump);
+							path.add(List.of(move.start, move.jumped, move.end));
+						}
+					}
+					System.out.print(MultiboardSolver.formatResult(board.toArray(), path));
+				}
+				System.out.println("Looked up in " + (endTime - startTime) / 1000 + " us");
+			}
+		}
+	}
+
+	//Helper method to find the position of a board's record in the result file, or -1 if it is not indexed.
+	private long find(PackedBoard board) {
+		long[] key = new long[2];
+		canonicalKeys.canonicalize(board.getLow(), board.getHigh(), key);
+		return find(key[0], key[1]);
+	}
+
+	//Helper method to find the position of the record for a key, or -1 if it is not indexed.
+	private long find(long low, long high) {
+		int mask = capacity - 1;
+		int slot = TranspositionTable.hash(low, high) & mask;
+		while (true) {
+			int offset = HEADER_BYTES + slot * SLOT_BYTES;
+			long entry = buffer.getLong(offset + 16);
+			if (entry == 0) {
+				return -1;
+			}
+			if (buffer.getLong(offset) == low && buffer.getLong(offset + 8) == high) {
+				return entry - 1;
+			}
+			slot = (slot + 1) & mask;
+		}
+	}
+
+	//Helper method to read the record at a position in the result file, returning its solution.
+	//Fills in the words of the board recorded, if given somewhere to put them.
+	//The stream is left open, since closing it would close the result file.
+	private int[] read(long offset, long[] board) throws IOException {
+		DataInputStream in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(results.position(offset)), READ_BYTES));
+		long low = ResultReader.readWord(in, lowBytes);
+		long high = ResultReader.readWord(in, highBytes);
+		if (board != null) {
+			board[0] = low;
+			board[1] = high;
+		}
+		return ResultReader.readSolution(in, jumpBytes);
+	}
+}
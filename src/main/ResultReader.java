@@ -0,0 +1,183 @@
+package main;
+
+//Necessary imports
+import java.io.BufferedInputStream;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+
+//Reads back a result file written by ResultWriter, one board at a time, and turns it into the text layout of
+//solutions.txt (see MultiboardSolver.formatResult).
+//To convert a file from the command line: java main.ResultReader solutions.bin solutions.txt
+public class ResultReader implements Closeable {
+
+	private final DataInputStream in;
+
+	private final Path path;
+
+	private final int size;
+
+	private final int numColors;
+
+	//Bytes stored of each board's low and high words, and bytes per jump (see ResultWriter).
+	private final int lowBytes;
+	private final int highBytes;
+	private final int jumpBytes;
+
+	//Words of the current board, and its solution (or null if it cannot be solved).
+	private long low;
+	private long high;
+	private int[] solution;
+
+	//Position in the file of the current record, and of the next one.
+	private long offset;
+	private long position = ResultWriter.HEADER_BYTES;
+
+
+	//Parameterized constructor
+	//Opens a result file and reads its header.
+	public ResultReader(Path path) throws IOException {
+		this.path = path;
+		this.in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path), 1 << 16));
+		try {
+			int[] header = ResultWriter.readHeader(in, path);
+			this.size = header[0];
+			this.numColors = header[1];
+		} catch (IOException e) {
+			in.close();
+			throw e;
+		}
+		this.lowBytes = ResultWriter.lowBytes(size, numColors);
+		this.highBytes = ResultWriter.highBytes(size, numColors);
+		this.jumpBytes = ResultWriter.jumpBytes(size);
+	}
+
+	//Moves to the next record. Returns false at the end of the file.
+	public boolean next() throws IOException {
+		in.mark(1);
+		if (in.read() < 0) {
+			return false;
+		}
+		in.reset();
+
+		try {
+			low = readWord(in, lowBytes);
+			high = readWord(in, highBytes);
+			solution = readSolution(in, jumpBytes);
+		} catch (EOFException e) {
+			throw new IOException(path + " ends partway through a record.", e);
+		}
+
+		offset = position;
+		long count = (solution == null) ? 0 : solution.length + 1L;
+		position += lowBytes + highBytes + ResultWriter.countBytes(count) + (count == 0 ? 0 : (long) solution.length * jumpBytes);
+		return true;
+	}
+
+	//Returns the current board.
+	public PackedBoard getBoard() {
+		return new PackedBoard(size, numColors, low, high);
+	}
+
+	//Returns the solution of the current board as jumps from the jump table, or null if it cannot be solved.
+	public int[] getSolution() {
+		return solution;
+	}
+
+	//Returns the position in the file of the current record (see ResultIndex).
+	public long getOffset() {
+		return offset;
+	}
+
+	public int getSize() {
+		return size;
+	}
+
+	public int getNumColors() {
+		return numColors;
+	}
+
+	@Override
+	public void close() throws IOException {
+		in.close();
+	}
+
+	//Writes every record of a result file to a text file, in the layout of solutions.txt.
+	//Returns the number of boards written.
+	public static long toText(Path from, Path to) throws IOException {
+		long boards = 0;
+		try (ResultReader reader = new ResultReader(from); BufferedWriter writer = Files.newBufferedWriter(to)) {
+			JumpTable jumps = JumpTable.forSize(reader.getSize());
+			List<List<int[]>> jumpPaths = new ArrayList<>(jumps.count);
+			for (int jump = 0; jump < jumps.count; jump++) {
+				Move move = jumps.getMove(jump);
+				jumpPaths.add(List.of(move.start, move.jumped, move.end));
+			}
+
+			while (reader.next()) {
+				List<List<int[]>> path = null;
+				if (reader.getSolution() != null) {
+					path = new ArrayList<>(reader.getSolution().length);
+					for (int jump : reader.getSolution()) {
+						path.add(jumpPaths.get(jump));
+					}
+				}
+				writer.write(MultiboardSolver.formatResult(reader.getBoard().toArray(), path));
+				boards++;
+			}
+		}
+		return boards;
+	}
+
+	//Converts a result file to text: java main.ResultReader <result file> <text file>
+	public static void main(String[] args) throws IOException {
+		if (args.length != 2) {
+			System.out.println("Usage: java main.ResultReader <result file> <text file>");
+			return;
+		}
+		long boards = toText(Paths.get(args[0]), Paths.get(args[1]));
+		System.out.println(boards + " boards written to " + args[1] + ".");
+	}
+
+	//Reads the bytes of a word, lowest first.
+	static long readWord(DataInputStream in, int bytes) throws IOException {
+		long word = 0;
+		for (int b = 0; b < bytes; b++) {
+			word |= (long) in.readUnsignedByte() << (8 * b);
+		}
+		return word;
+	}
+
+	//Reads the solution of a record, following its board: the jumps from the jump table, or null if it cannot be solved.
+	static int[] readSolution(DataInputStream in, int jumpBytes) throws IOException {
+		long count = 0;
+		int shift = 0;
+		int b;
+		do {
+			b = in.readUnsignedByte();
+			count |= (long) (b & 0x7F) << shift;
+			shift += 7;
+		} while ((b & 0x80) != 0);
+
+		if (count == 0) {
+			return null;
+		}
+		int[] solution = new int[(int) (count - 1)];
+		for (int i = 0; i < solution.length; i++) {
+			int jump = in.readUnsignedByte();
+			if (jumpBytes == 2) {
+				jump = (jump << 8) | in.readUnsignedByte();
+			}
+			solution[i] = jump;
+		}
+		return solution;
+	}
+}
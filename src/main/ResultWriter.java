@@ -0,0 +1,213 @@
+package main;
+
+//Necessary imports
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+
+//Compact binary file of all-boards results, in place of the text of solutions.txt.
+//See ResultReader to read one back, or to turn it into that text.
+//Layout, with numbers big-endian:
+//		Header: the magic number "PEGR", then the format version, board size and number of colors, one byte each.
+//		Then one record per board:
+//			The packed board (see PackedBoard): the bytes of its low word that hold holes, lowest first,
+//			then those of its high word.
+//			The number of jumps in its solution plus one, 7 bits per byte, lowest first, with the top bit set on every
+//			byte but the last; 0 if the board cannot be solved.
+//			Each jump of the solution, as its index in the jump table (see JumpTable): one byte, or two on boards
+//			with more than 256 jumps.
+//A T5 board in 3 colors with a 13-jump solution takes 18 bytes, against about 600 as text.
+public class ResultWriter implements Closeable {
+
+	//"PEGR"
+	static final int MAGIC = 0x50454752;
+
+	static final int VERSION = 1;
+
+	//Bytes in the header: magic number, version, size and number of colors.
+	static final int HEADER_BYTES = 7;
+
+	private final DataOutputStream out;
+
+	private final int size;
+
+	private final int numColors;
+
+	//Bytes stored of each board's low and high words, and bytes per jump.
+	private final int lowBytes;
+	private final int highBytes;
+	private final int jumpBytes;
+
+	//Number of records written by this writer.
+	private long records;
+
+
+	//Opens a result file for a given board size and number of colors, appending to it if it already holds results.
+	//Fails if the existing file was written for another size of board or number of colors.
+	public static ResultWriter open(Path path, int size, int numColors) throws IOException {
+		boolean append = Files.exists(path) && Files.size(path) > 0;
+		if (append) {
+			try (DataInputStream in = new DataInputStream(Files.newInputStream(path))) {
+				checkHeader(in, size, numColors, path);
+			}
+		}
+
+		OutputStream file = Files.newOutputStream(path, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+		ResultWriter writer = new ResultWriter(new DataOutputStream(new BufferedOutputStream(file, 1 << 16)), size, numColors);
+		if (!append) {
+			writer.out.writeInt(MAGIC);
+			writer.out.writeByte(VERSION);
+			writer.out.writeByte(size);
+			writer.out.writeByte(numColors);
+		}
+		return writer;
+	}
+
+	//Parameterized constructor
+	private ResultWriter(DataOutputStream out, int size, int numColors) {
+		this.out = out;
+		this.size = size;
+		this.numColors = numColors;
+		this.lowBytes = lowBytes(size, numColors);
+		this.highBytes = highBytes(size, numColors);
+		this.jumpBytes = jumpBytes(size);
+	}
+
+	//Appends a board and its solution, as jumps from the jump table (or null if it cannot be solved).
+	public void write(PackedBoard board, int[] solution) throws IOException {
+		writeRecord(encode(board, solution));
+	}
+
+	//Appends a board, in the usual left-aligned 2D format, and its solution.
+	public void write(int[][] board, int[] solution) throws IOException {
+		write(new PackedBoard(board, numColors), solution);
+	}
+
+	//Returns the record of a board and its solution, without writing it.
+	//Safe to call from any thread, e.g. by workers handing records to a single thread that writes them.
+	public byte[] encode(PackedBoard board, int[] solution) {
+		ByteArrayOutputStream record = new ByteArrayOutputStream(lowBytes + highBytes + 2 + (solution == null ? 0 : solution.length * jumpBytes));
+		writeWord(record, board.getLow(), lowBytes);
+		writeWord(record, board.getHigh(), highBytes);
+
+		long count = (solution == null) ? 0 : solution.length + 1L;
+		while (count >= 0x80) {
+			record.write((int) (count & 0x7F) | 0x80);
+			count >>>= 7;
+		}
+		record.write((int) count);
+
+		if (solution != null) {
+			for (int jump : solution) {
+				if (jumpBytes == 2) {
+					record.write(jump >>> 8);
+				}
+				record.write(jump);
+			}
+		}
+		return record.toByteArray();
+	}
+
+	//As above, for a board in the usual left-aligned 2D format.
+	public byte[] encode(int[][] board, int[] solution) {
+		return encode(new PackedBoard(board, numColors), solution);
+	}
+
+	//Appends a record made by encode.
+	public void writeRecord(byte[] record) throws IOException {
+		out.write(record);
+		records++;
+	}
+
+	//Writes every record so far out to the file.
+	public void flush() throws IOException {
+		out.flush();
+	}
+
+	//Returns the number of records written by this writer.
+	public long getRecords() {
+		return records;
+	}
+
+	public int getSize() {
+		return size;
+	}
+
+	public int getNumColors() {
+		return numColors;
+	}
+
+	@Override
+	public void close() throws IOException {
+		out.close();
+	}
+
+	//Helper method to write the lowest bytes of a word, lowest first.
+	private static void writeWord(ByteArrayOutputStream record, long word, int bytes) {
+		for (int b = 0; b < bytes; b++) {
+			record.write((int) (word >>> (8 * b)));
+		}
+	}
+
+	//Reads and checks the header of a result file. Fails if it is not one, or was written for another configuration.
+	static void checkHeader(DataInputStream in, int size, int numColors, Path path) throws IOException {
+		int[] header = readHeader(in, path);
+		if (header[0] != size || header[1] != numColors) {
+			throw new IOException(path + " holds results for T" + header[0] + " in " + header[1] + " colors, not T" + size + " in " + numColors + " colors.");
+		}
+	}
+
+	//Reads the header of a result file, returning the board size and number of colors.
+	static int[] readHeader(DataInputStream in, Path path) throws IOException {
+		if (in.readInt() != MAGIC) {
+			throw new IOException(path + " is not a result file.");
+		}
+		int version = in.readUnsignedByte();
+		if (version != VERSION) {
+			throw new IOException(path + " has result format version " + version + ", not " + VERSION + ".");
+		}
+		return new int[] {in.readUnsignedByte(), in.readUnsignedByte()};
+	}
+
+	//Helper method to find the number of bits per hole of a packed board.
+	private static int bits(int numColors) {
+		return Math.max(1, 32 - Integer.numberOfLeadingZeros(numColors - 1));
+	}
+
+	//Bytes of a board's low word stored in each record.
+	static int lowBytes(int size, int numColors) {
+		int holes = size * (size + 1) / 2;
+		int bits = bits(numColors);
+		return (Math.min(holes, 64 / bits) * bits + 7) / 8;
+	}
+
+	//Bytes of a board's high word stored in each record.
+	static int highBytes(int size, int numColors) {
+		int holes = size * (size + 1) / 2;
+		int bits = bits(numColors);
+		return (Math.max(0, holes - 64 / bits) * bits + 7) / 8;
+	}
+
+	//Bytes taken by the number of jumps of a record (the count plus one, or 0), 7 bits per byte.
+	static int countBytes(long count) {
+		int bytes = 1;
+		while (count >= 0x80) {
+			count >>>= 7;
+			bytes++;
+		}
+		return bytes;
+	}
+
+	//Bytes per jump of a solution.
+	static int jumpBytes(int size) {
+		return (JumpTable.forSize(size).count > 256) ? 2 : 1;
+	}
+}
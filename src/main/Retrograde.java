@@ -0,0 +1,195 @@
+package main;
+
+//Necessary imports
+import java.util.Arrays;
+
+
+//Retrograde analysis: every board of a given size and number of colors that can be solved, worked out once by
+//taking back jumps from the one-peg boards (see SolverEngine.isValidReverseMove), and kept in memory as one bit per
+//board. Whether any board can be solved is then a single lookup, with no search at all.
+//Boards are indexed by their rank, the number whose base-numColors digits are the colors of the holes
+//(hole 0 the lowest digit), which numbers all numColors^holes boards without gaps. Only the symmetric key of each
+//board (see CanonicalKeys) is marked, so a lookup ranks the key rather than the board itself.
+//The bits take numColors^holes / 8 bytes, twice over while they are worked out (e.g. 1.8 MB for T5 in 3 colors,
+//128 MB for T5 in 4 colors, 1.3 GB for T6 in 3 colors).
+public class Retrograde {
+
+	//Rules of the search: reverse jumps and symmetric keys (see SolverEngine).
+	private final SolverEngine engine;
+
+	private final JumpTable jumps;
+
+	private final int holes;
+
+	private final int numColors;
+
+	//Bits per hole in the packed words of a board, and holes per word (see PackedBoard).
+	private final int bits;
+	private final int perWord;
+
+	//powers[h] is numColors^h, the weight of hole h in a rank.
+	private final long[] powers;
+
+	//Bit r is set when the board of rank r is the symmetric key of a board that can be solved.
+	private final long[] solvable;
+
+	//Number of solvable boards with each number of pegs, up to symmetry.
+	private final long[] levelSizes;
+
+
+	//Parameterized constructor
+	//Takes in the board size, number of colors and jump restriction, and works out every solvable board.
+	public Retrograde(int size, int numColors, boolean restrictToNJumps) {
+		this.engine = new SolverEngine(size, numColors, restrictToNJumps);
+		this.jumps = engine.getJumps();
+		this.holes = jumps.holes;
+		this.numColors = numColors;
+		this.bits = Math.max(1, 32 - Integer.numberOfLeadingZeros(numColors - 1));
+		this.perWord = 64 / bits;
+
+		this.powers = new long[holes + 1];
+		powers[0] = 1;
+		try {
+			for (int h = 1; h <= holes; h++) {
+				powers[h] = Math.multiplyExact(powers[h - 1], numColors);
+			}
+		} catch (ArithmeticException e) {
+			throw new IllegalArgumentException("Too many boards to index for T" + size + " in " + numColors + " colors.");
+		}
+		long words = (powers[holes] + 63) / 64;
+		if (words > Integer.MAX_VALUE - 8) {
+			throw new IllegalArgumentException("Too many boards to index for T" + size + " in " + numColors + " colors.");
+		}
+
+		this.solvable = new long[(int) words];
+		this.levelSizes = new long[holes + 1];
+		build();
+	}
+
+	//Checks whether a board can be solved.
+	public boolean isSolvable(PackedBoard board) {
+		long[] key = new long[2];
+		engine.canonicalize(board, key);
+		long rank = rank(key[0], key[1]);
+		return (solvable[(int) (rank >>> 6)] & (1L << rank)) != 0;
+	}
+
+	//Checks whether a board, in the usual left-aligned 2D format, can be solved.
+	public boolean isSolvable(int[][] board) {
+		return isSolvable(new PackedBoard(board, numColors));
+	}
+
+	//Returns the number of starting boards (boards with a single vacancy) that can be solved, up to symmetry.
+	//As in the all-boards sweep (see Main.generateBoards), boards whose pegs are all of the first color are
+	//left out of the count, though they stay in the top level (see getLevelSize).
+	public long countSolvable() {
+		PackedBoard board = new PackedBoard(engine.getSize(), numColors);
+		long[] key = new long[2];
+		long[] ranks = new long[holes];
+		for (int hole = 0; hole < holes; hole++) {
+			board.set(hole, 1);
+		}
+		for (int hole = 0; hole < holes; hole++) {
+			board.set(hole, 0);
+			engine.canonicalize(board, key);
+			ranks[hole] = rank(key[0], key[1]);
+			board.set(hole, 1);
+		}
+
+		//Vacancies that are rotations or reflections of each other give the same key, which is only counted once.
+		Arrays.sort(ranks);
+		long count = levelSizes[holes - 1];
+		for (int h = 0; h < holes; h++) {
+			if ((h == 0 || ranks[h] != ranks[h - 1]) && (solvable[(int) (ranks[h] >>> 6)] & (1L << ranks[h])) != 0) {
+				count--;
+			}
+		}
+		return count;
+	}
+
+	//Returns the number of solvable boards with a given number of pegs, up to symmetry.
+	public long getLevelSize(int pegs) {
+		return levelSizes[pegs];
+	}
+
+	//Returns the rank of a board.
+	public long rank(PackedBoard board) {
+		return rank(board.getLow(), board.getHigh());
+	}
+
+	//Helper method to find the rank of a board from its packed words.
+	private long rank(long low, long high) {
+		long mask = (1L << bits) - 1;
+		long rank = 0;
+		for (int h = 0; h < holes; h++) {
+			long color = (h < perWord) ? (low >>> (h * bits)) & mask : (high >>> ((h - perWord) * bits)) & mask;
+			rank += color * powers[h];
+		}
+		return rank;
+	}
+
+	//Helper method to set a board to the board of a given rank.
+	private void unrank(long rank, PackedBoard board) {
+		for (int h = 0; h < holes; h++) {
+			board.set(h, (int) (rank % numColors));
+			rank /= numColors;
+		}
+	}
+
+	//Helper method to mark the boards that can be solved, starting from the one-peg boards.
+	//Boards marked but not yet taken back from are also set in pending. Pending bits are cleared as the boards are
+	//taken back from, in rank order, and a pass is repeated as long as it marked a board below the one it was on.
+	private void build() {
+		long[] pending = new long[solvable.length];
+		PackedBoard board = new PackedBoard(engine.getSize(), numColors);
+		long[] key = new long[2];
+
+		for (int hole = 0; hole < holes; hole++) {
+			for (int color = 1; color < numColors; color++) {
+				board.set(hole, color);
+				engine.canonicalize(board, key);
+				mark(rank(key[0], key[1]), pending);
+				board.set(hole, 0);
+			}
+		}
+
+		boolean more = true;
+		while (more) {
+			more = false;
+			for (int w = 0; w < pending.length; w++) {
+				while (pending[w] != 0) {
+					long bit = pending[w] & -pending[w];
+					pending[w] ^= bit;
+					unrank(((long) w << 6) | Long.numberOfTrailingZeros(bit), board);
+					levelSizes[board.pegCount()]++;
+
+					for (int jump = 0; jump < jumps.count; jump++) {
+						if (!engine.isValidReverseMove(board, jump)) {
+							continue;
+						}
+						board.undoMove(jumps.start[jump], jumps.jumped[jump], jumps.end[jump]);
+						engine.canonicalize(board, key);
+						long rank = rank(key[0], key[1]);
+						if (mark(rank, pending) && (rank >>> 6) < w) {
+							more = true;
+						}
+						board.applyMove(jumps.start[jump], jumps.jumped[jump], jumps.end[jump]);
+					}
+				}
+			}
+		}
+	}
+
+	//Helper method to mark a board as solvable, and as pending if it was not already marked.
+	//Returns true if the board was not already marked.
+	private boolean mark(long rank, long[] pending) {
+		int word = (int) (rank >>> 6);
+		long bit = 1L << rank;
+		if ((solvable[word] & bit) != 0) {
+			return false;
+		}
+		solvable[word] |= bit;
+		pending[word] |= bit;
+		return true;
+	}
+}
@@ -0,0 +1,224 @@
+package main;
+
+//Necessary imports
+import java.util.Arrays;
+import java.util.Locale;
+
+
+//Measurements of a single solve: boards expanded, time taken, depths reached, how often a jump led to a
+//board already searched or one ruled out by an invariant, and the branching factor (valid jumps per board expanded) at each depth.
+//Counters are plain fields, cheap enough to leave on: a SolverEngine counts into one instance per solve,
+//and each task of a ParallelSolver counts into its own instance, merged into the solve's once the task ends.
+//Results can be read through the getters, exported as JSON, or recorded as a JFR event (see SolveEvent).
+public class SearchStats {
+
+	//Boards expanded, and valid jumps played from them, at each depth.
+	private long[] expanded = new long[16];
+	private long[] generated = new long[16];
+
+	//Jumps that led to a board already in the table of searched boards, and jumps that led to a new one.
+	private long tableHits;
+	private long tableMisses;
+
+	//Boards the tablebase answered (see Tablebase), without searching them.
+	private long tablebaseHits;
+
+	//Jumps that led to a board ruled out by an invariant or pagoda function (see Invariants and Pagoda),
+	//without looking it up.
+	private long invariantCutoffs;
+
+	//Deepest board expanded.
+	private int maxDepth;
+
+	private long startNanos;
+	private long elapsedNanos;
+
+	private boolean solved;
+
+
+	//Records a board expanded at a given depth.
+	void expand(int depth) {
+		if (depth >= expanded.length) {
+			int length = Math.max(expanded.length * 2, depth + 1);
+			expanded = Arrays.copyOf(expanded, length);
+			generated = Arrays.copyOf(generated, length);
+		}
+		expanded[depth]++;
+		if (depth > maxDepth) {
+			maxDepth = depth;
+		}
+	}
+
+	//Records a valid jump played from a board at a given depth (which has already been expanded),
+	//and whether it led to a board that was already searched.
+	void generate(int depth, boolean searched) {
+		generated[depth]++;
+		if (searched) {
+			tableHits++;
+		} else {
+			tableMisses++;
+		}
+	}
+
+	//Records a valid jump played from a board at a given depth that led to a board ruled out by an invariant.
+	void cutoff(int depth) {
+		generated[depth]++;
+		invariantCutoffs++;
+	}
+
+	//Records a board ruled out by an invariant, once the jump to it has already been counted (or for the starting board).
+	void cutoff() {
+		invariantCutoffs++;
+	}
+
+	//Records a board answered by the tablebase.
+	void tablebaseHit() {
+		tablebaseHits++;
+	}
+
+	//Marks the start and end of the solve.
+	void start() {
+		startNanos = System.nanoTime();
+	}
+
+	void finish(boolean solved) {
+		this.elapsedNanos = System.nanoTime() - startNanos;
+		this.solved = solved;
+	}
+
+	//Adds the counts of another instance (e.g. a finished parallel task) to this one.
+	synchronized void merge(SearchStats other) {
+		if (other.expanded.length > expanded.length) {
+			expanded = Arrays.copyOf(expanded, other.expanded.length);
+			generated = Arrays.copyOf(generated, other.expanded.length);
+		}
+		for (int d = 0; d < other.expanded.length; d++) {
+			expanded[d] += other.expanded[d];
+			generated[d] += other.generated[d];
+		}
+		tableHits += other.tableHits;
+		tableMisses += other.tableMisses;
+		tablebaseHits += other.tablebaseHits;
+		invariantCutoffs += other.invariantCutoffs;
+		maxDepth = Math.max(maxDepth, other.maxDepth);
+	}
+
+	//Returns the number of boards expanded.
+	public long getNodes() {
+		long nodes = 0;
+		for (long count : expanded) {
+			nodes += count;
+		}
+		return nodes;
+	}
+
+	//Returns the number of boards expanded per second of the solve.
+	public double getNodesPerSecond() {
+		return elapsedNanos == 0 ? 0 : getNodes() * 1e9 / elapsedNanos;
+	}
+
+	public long getElapsedNanos() {
+		return elapsedNanos;
+	}
+
+	public int getMaxDepth() {
+		return maxDepth;
+	}
+
+	//Returns the average depth of the boards expanded.
+	public double getAverageDepth() {
+		long nodes = 0;
+		long depths = 0;
+		for (int d = 0; d < expanded.length; d++) {
+			nodes += expanded[d];
+			depths += d * expanded[d];
+		}
+		return nodes == 0 ? 0 : (double) depths / nodes;
+	}
+
+	public long getTableHits() {
+		return tableHits;
+	}
+
+	public long getTableMisses() {
+		return tableMisses;
+	}
+
+	//Returns the fraction of jumps that led to a board already searched.
+	public double getTableHitRate() {
+		long lookups = tableHits + tableMisses;
+		return lookups == 0 ? 0 : (double) tableHits / lookups;
+	}
+
+	public long getTablebaseHits() {
+		return tablebaseHits;
+	}
+
+	public long getInvariantCutoffs() {
+		return invariantCutoffs;
+	}
+
+	public boolean isSolved() {
+		return solved;
+	}
+
+	//Returns the number of boards expanded at each depth, up to the deepest.
+	public long[] getNodesByDepth() {
+		return Arrays.copyOf(expanded, maxDepth + 1);
+	}
+
+	//Returns the average number of valid jumps from the boards expanded at each depth, up to the deepest.
+	public double[] getBranchingFactors() {
+		double[] factors = new double[maxDepth + 1];
+		for (int d = 0; d <= maxDepth; d++) {
+			factors[d] = expanded[d] == 0 ? 0 : (double) generated[d] / expanded[d];
+		}
+		return factors;
+	}
+
+	//Returns every measurement as a single-line JSON object.
+	public String toJson() {
+		StringBuilder json = new StringBuilder();
+		json.append("{\"solved\":").append(solved);
+		json.append(",\"nodes\":").append(getNodes());
+		json.append(",\"elapsedNanos\":").append(elapsedNanos);
+		json.append(",\"nodesPerSecond\":").append(Math.round(getNodesPerSecond()));
+		json.append(",\"maxDepth\":").append(maxDepth);
+		json.append(",\"averageDepth\":").append(String.format(Locale.ROOT, "%.3f", getAverageDepth()));
+		json.append(",\"tableHits\":").append(tableHits);
+		json.append(",\"tableMisses\":").append(tableMisses);
+		json.append(",\"tableHitRate\":").append(String.format(Locale.ROOT, "%.4f", getTableHitRate()));
+		json.append(",\"tablebaseHits\":").append(tablebaseHits);
+		json.append(",\"invariantCutoffs\":").append(invariantCutoffs);
+		json.append(",\"nodesByDepth\":").append(Arrays.toString(getNodesByDepth()).replace(" ", ""));
+		json.append(",\"branchingFactors\":[");
+		double[] factors = getBranchingFactors();
+		for (int d = 0; d < factors.length; d++) {
+			json.append(d == 0 ? "" : ",").append(String.format(Locale.ROOT, "%.3f", factors[d]));
+		}
+		json.append("]}");
+		return json.toString();
+	}
+
+	//Records the solve as a JFR event, if a recording has SolveEvent enabled.
+	void commitEvent(int size, int numColors, int threads) {
+		SolveEvent event = new SolveEvent();
+		if (!event.isEnabled()) {
+			return;
+		}
+		event.boardSize = size;
+		event.numColors = numColors;
+		event.threads = threads;
+		event.solved = solved;
+		event.nodes = getNodes();
+		event.nodesPerSecond = getNodesPerSecond();
+		event.maxDepth = maxDepth;
+		event.averageDepth = getAverageDepth();
+		event.tableHits = tableHits;
+		event.tableMisses = tableMisses;
+		event.tablebaseHits = tablebaseHits;
+		event.invariantCutoffs = invariantCutoffs;
+		event.solveDuration = elapsedNanos;
+		event.commit();
+	}
+}
@@ -0,0 +1,417 @@
+package main;
+
+//Necessary imports
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.stream.Stream;
+
+
+//All-boards sweep split across several worker processes, for sweeps too large for one JVM.
+//Each starting vacancy's boards are split into shards, ranges of ranks of the enumeration (see BoardEnumeration),
+//which are the same for every run of the same sweep. Workers take shards from a queue of files in a directory,
+//solve each with a BatchSolver into a result file of its own, and the coordinator appends the shards' results to
+//the output in order once every shard is done, so the output is the same as a single BatchSolver would write.
+//The directory (e.g. "solutions.txt.shards") holds:
+//		sweep - The configuration of the sweep. Written last when the directory is set up, so its presence marks a
+//		sweep that is ready to run.
+//		queue/ - A file for each shard not yet taken, "shard-00012", holding its vacancy and range of ranks.
+//		running/ - Shards being solved, renamed from the queue by the worker taking them (e.g. "shard-00012.worker-3").
+//		A rename succeeds for only one worker, so no two workers ever take the same shard.
+//		done/ - Shards whose results are complete.
+//		results/ - Each shard's results, and the checkpoint of any shard being solved (see Checkpoint).
+//		worker-3.pid, worker-3.log - Process id and output of each worker.
+//		tablebase-worker-3.bin - Tablebase of each worker, kept between its shards (a tablebase is not shared between
+//		processes).
+//If a worker dies, its shard goes back on the queue and a new worker picks it up from the shard's checkpoint.
+//If the coordinator dies, running it again picks the sweep up from the directory.
+//Once the results are merged, the directory is deleted.
+public class ShardedSweep {
+
+	//Shards per worker for each starting vacancy. Small shards balance the workers, and lose less work to a crash.
+	private static final int SHARDS_PER_WORKER = 4;
+
+	//Seconds between each shard's checkpoints.
+	private static final int CHECKPOINT_SECONDS = 60;
+
+	//How often the coordinator checks on its workers.
+	private static final long POLL_MILLIS = 100;
+
+	//Number of times workers may fail before the sweep gives up.
+	private static final int MAX_FAILURES = 10;
+
+	//Size of the boards to solve
+	private int boardSize;
+
+	//Name of file to output to
+	private String fileName;
+
+	//Number of worker processes, and threads per worker
+	private int workers;
+	private int threads;
+
+	//Whether to skip boards that are a rotation or reflection of another board with the same vacancy.
+	private boolean symmetryReduced;
+
+	//Whether each worker keeps a tablebase.
+	private boolean useTablebase;
+
+	//Whether to write results in the binary format of ResultWriter rather than as text.
+	private boolean binary;
+
+	//Directory of the sweep's queue and results
+	private Path directory;
+
+
+	//Parameterized constructor
+	//Takes in the board size, the file name for solutions, the number of worker processes and threads per worker,
+	//whether to skip boards equivalent up to symmetry, whether workers keep a tablebase, whether to write results in
+	//binary, and the directory to keep the sweep's queue and results in.
+	public ShardedSweep(int boardSize, String fileName, int workers, int threads, boolean symmetryReduced, boolean useTablebase, boolean binary, Path directory) {
+		this.boardSize = boardSize;
+		this.fileName = fileName;
+		this.workers = workers;
+		this.threads = threads;
+		this.symmetryReduced = symmetryReduced;
+		this.useTablebase = useTablebase;
+		this.binary = binary;
+		this.directory = directory;
+	}
+
+	//Solves every board for each given starting vacancy across the worker processes, appending the results to the
+	//output file in the same order as BatchSolver.solveAll. Picks up an unfinished sweep from its directory.
+	//Returns once every result is written.
+	public void solveAll(int[][] holes, BoardEnumeration boards) throws IOException {
+		Properties sweep = describe(holes, boards);
+		int shards = setUp(sweep, holes, boards);
+
+		Process[] processes = new Process[workers];
+		int failures = 0;
+		try {
+			while (true) {
+				boolean running = false;
+				for (int worker = 0; worker < workers; worker++) {
+					Process process = processes[worker];
+					if (process != null && process.isAlive()) {
+						running = true;
+						continue;
+					}
+					if (process != null) {
+						processes[worker] = null;
+						if (process.exitValue() != 0) {
+							requeue(".worker-" + worker);
+							if (++failures > MAX_FAILURES) {
+								throw new IOException("Workers failed " + failures + " times; see the worker logs in " + directory + ".");
+							}
+						}
+					}
+					if (!list(directory.resolve("queue")).isEmpty()) {
+						processes[worker] = start(worker);
+						running = true;
+					}
+				}
+				if (!running) {
+					break;
+				}
+				Thread.sleep(POLL_MILLIS);
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("Interrupted while waiting for the workers.");
+		} finally {
+			for (Process process : processes) {
+				if (process != null) {
+					process.destroy();
+				}
+			}
+		}
+
+		List<Path> done = list(directory.resolve("done"));
+		if (done.size() != shards) {
+			throw new IOException("Only " + done.size() + " of " + shards + " shards in " + directory + " were solved.");
+		}
+		merge(done);
+	}
+
+	//Runs a worker: java main.ShardedSweep <directory> <worker>
+	//Takes shards from the queue and solves them until the queue is empty. Stops if the coordinator dies.
+	public static void main(String[] args) throws IOException {
+		Path directory = Paths.get(args[0]);
+		int worker = Integer.parseInt(args[1]);
+
+		ProcessHandle.current().parent().ifPresent(parent -> parent.onExit().thenRun(() -> Runtime.getRuntime().halt(1)));
+		Files.writeString(directory.resolve("worker-" + worker + ".pid"), Long.toString(ProcessHandle.current().pid()));
+
+		Properties sweep = new Properties();
+		try (Reader in = Files.newBufferedReader(directory.resolve("sweep"))) {
+			sweep.load(in);
+		}
+		int boardSize = Integer.parseInt(sweep.getProperty("size"));
+		int elements = Integer.parseInt(sweep.getProperty("elements"));
+		int[][] holes = parseHoles(sweep.getProperty("holes"));
+		int threads = Integer.parseInt(sweep.getProperty("threads"));
+		boolean symmetryReduced = Boolean.parseBoolean(sweep.getProperty("symmetryReduced"));
+		boolean binary = Boolean.parseBoolean(sweep.getProperty("binary"));
+		boolean useTablebase = Boolean.parseBoolean(sweep.getProperty("tablebase"));
+
+		Path tablebaseFile = directory.resolve("tablebase-worker-" + worker + ".bin");
+		try (Tablebase tablebase = useTablebase ? Tablebase.open(tablebaseFile, boardSize, 3, false) : null) {
+			Path shard;
+			while ((shard = claim(directory, worker)) != null) {
+				String name = shard.getFileName().toString();
+				name = name.substring(0, name.indexOf('.'));
+				String[] range = Files.readString(shard).trim().split(" ");
+				int hole = Integer.parseInt(range[0]);
+				BoardEnumeration boards = new BoardEnumeration(elements, Long.parseLong(range[1]), Long.parseLong(range[2]));
+
+				//A result file without a checkpoint is a finished shard, whose worker died before moving it to done.
+				Path output = directory.resolve("results").resolve(name + (binary ? ".bin" : ".txt"));
+				Path checkpoint = output.resolveSibling(output.getFileName() + ".checkpoint");
+				if (!Files.exists(output) || Files.exists(checkpoint)) {
+					BatchSolver batch = new BatchSolver(boardSize, output.toString(), threads, symmetryReduced, tablebase, binary, checkpoint, CHECKPOINT_SECONDS);
+					batch.solveAll(new int[][] {holes[hole]}, boards);
+					if (!binary) {
+						OutputSink.forFile(output.toString()).close();
+					}
+				}
+				Files.move(shard, directory.resolve("done").resolve(name), StandardCopyOption.ATOMIC_MOVE);
+			}
+		}
+	}
+
+	//Helper method to describe the sweep, as saved in the directory.
+	private Properties describe(int[][] holes, BoardEnumeration boards) {
+		StringBuilder vacancies = new StringBuilder();
+		for (int[] hole : holes) {
+			vacancies.append(vacancies.length() == 0 ? "" : ";").append(hole[0]).append(',').append(hole[1]);
+		}
+		Properties sweep = new Properties();
+		sweep.setProperty("size", Integer.toString(boardSize));
+		sweep.setProperty("elements", Integer.toString(boards.getSize()));
+		sweep.setProperty("from", Long.toString(boards.getFrom()));
+		sweep.setProperty("to", Long.toString(boards.getTo()));
+		sweep.setProperty("holes", vacancies.toString());
+		sweep.setProperty("symmetryReduced", Boolean.toString(symmetryReduced));
+		sweep.setProperty("binary", Boolean.toString(binary));
+		sweep.setProperty("tablebase", Boolean.toString(useTablebase));
+		sweep.setProperty("threads", Integer.toString(threads));
+		return sweep;
+	}
+
+	//Helper method to set up the directory for a new sweep, or to check that it holds this sweep and put back the
+	//shards of workers that are no longer running. Returns the number of shards.
+	private int setUp(Properties sweep, int[][] holes, BoardEnumeration boards) throws IOException {
+		Path config = directory.resolve("sweep");
+		if (Files.exists(config)) {
+			Properties saved = new Properties();
+			try (Reader in = Files.newBufferedReader(config)) {
+				saved.load(in);
+			}
+			for (String key : new String[] {"size", "elements", "from", "to", "holes", "symmetryReduced", "binary"}) {
+				if (!sweep.getProperty(key).equals(saved.getProperty(key))) {
+					throw new IOException(directory + " holds another sweep (its " + key + " is " + saved.getProperty(key) + ").");
+				}
+			}
+
+			//Workers left over from a coordinator that died are stopped before their shards are put back.
+			//A process id may have been reused since, so only a process running a worker is stopped.
+			for (Path file : list(directory)) {
+				String name = file.getFileName().toString();
+				if (!name.startsWith("worker-") || !name.endsWith(".pid")) {
+					continue;
+				}
+				Optional<ProcessHandle> process = ProcessHandle.of(Long.parseLong(Files.readString(file).trim()));
+				if (process.isPresent() && process.get().info().commandLine().orElse("").contains(ShardedSweep.class.getName())) {
+					process.get().destroyForcibly();
+					process.get().onExit().join();
+				}
+			}
+			requeue("");
+			return list(directory.resolve("queue")).size() + list(directory.resolve("running")).size() + list(directory.resolve("done")).size();
+		}
+
+		delete(directory);
+		for (String sub : new String[] {"queue", "running", "done", "results"}) {
+			Files.createDirectories(directory.resolve(sub));
+		}
+		int shards = 0;
+		for (int hole = 0; hole < holes.length; hole++) {
+			for (BoardEnumeration range : boards.split(workers * SHARDS_PER_WORKER)) {
+				Files.writeString(directory.resolve("queue").resolve(shardName(shards)), hole + " " + range.getFrom() + " " + range.getTo());
+				shards++;
+			}
+		}
+		Path temp = directory.resolve("sweep.tmp");
+		try (Writer out = Files.newBufferedWriter(temp)) {
+			sweep.store(out, "All-boards sweep: " + shards + " shards");
+		}
+		move(temp, config);
+		return shards;
+	}
+
+	//Helper method to start a worker process, running the same Java as this one.
+	private Process start(int worker) throws IOException {
+		List<String> command = new ArrayList<>();
+		command.add(Paths.get(System.getProperty("java.home"), "bin", "java").toString());
+		String module = ShardedSweep.class.getModule().getName();
+		if (module != null) {
+			command.add("--module-path");
+			command.add(System.getProperty("jdk.module.path"));
+			command.add("-m");
+			command.add(module + "/" + ShardedSweep.class.getName());
+		} else {
+			command.add("-cp");
+			command.add(System.getProperty("java.class.path"));
+			command.add(ShardedSweep.class.getName());
+		}
+		command.add(directory.toString());
+		command.add(Integer.toString(worker));
+
+		ProcessBuilder builder = new ProcessBuilder(command);
+		builder.redirectErrorStream(true);
+		builder.redirectOutput(ProcessBuilder.Redirect.appendTo(directory.resolve("worker-" + worker + ".log").toFile()));
+		return builder.start();
+	}
+
+	//Helper method to put shards being solved back on the queue, those of every worker or those whose names end in
+	//a given suffix (one worker's).
+	private void requeue(String suffix) throws IOException {
+		for (Path shard : list(directory.resolve("running"))) {
+			String name = shard.getFileName().toString();
+			if (name.endsWith(suffix)) {
+				move(shard, directory.resolve("queue").resolve(name.substring(0, name.indexOf('.'))));
+			}
+		}
+	}
+
+	//Helper method to append every shard's results to the output, in order, then delete the directory.
+	//The length of the output before merging is saved first, so a merge cut short is undone and redone.
+	private void merge(List<Path> done) throws IOException {
+		Path output = Paths.get(fileName);
+		if (binary) {
+			//Writes the header of a new result file, or checks that of an existing one.
+			ResultWriter.open(output, boardSize, 3).close();
+		}
+
+		Path marker = directory.resolve("merge");
+		if (Files.exists(marker)) {
+			//The output may not exist yet, if the merge was cut short before anything was appended to a new file.
+			long length = Long.parseLong(Files.readString(marker).trim());
+			try (FileChannel channel = FileChannel.open(output, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+				channel.truncate(length);
+			}
+		} else {
+			Path temp = directory.resolve("merge.tmp");
+			Files.writeString(temp, Long.toString(Files.exists(output) ? Files.size(output) : 0));
+			move(temp, marker);
+		}
+
+		try (FileChannel out = FileChannel.open(output, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+			for (Path shard : done) {
+				Path results = directory.resolve("results").resolve(shard.getFileName() + (binary ? ".bin" : ".txt"));
+				try (FileChannel in = FileChannel.open(results, StandardOpenOption.READ)) {
+					long position = 0;
+					if (binary) {
+						try (DataInputStream header = new DataInputStream(Files.newInputStream(results))) {
+							ResultWriter.checkHeader(header, boardSize, 3, results);
+						}
+						position = ResultWriter.HEADER_BYTES;
+					}
+					while (position < in.size()) {
+						position += in.transferTo(position, in.size() - position, out);
+					}
+				}
+			}
+			out.force(true);
+		}
+		if (binary) {
+			ResultIndex.build(output, ResultIndex.fileName(output));
+		}
+
+		//Renamed first, so a coordinator that dies while it is deleted never mistakes it for a sweep to merge again.
+		Path finished = directory.resolveSibling(directory.getFileName() + ".finished");
+		delete(finished);
+		move(directory, finished);
+		delete(finished);
+	}
+
+	//Helper method to take the first shard on the queue, or return null if it is empty.
+	private static Path claim(Path directory, int worker) throws IOException {
+		for (Path shard : list(directory.resolve("queue"))) {
+			Path running = directory.resolve("running").resolve(shard.getFileName() + ".worker-" + worker);
+			try {
+				Files.move(shard, running, StandardCopyOption.ATOMIC_MOVE);
+				return running;
+			} catch (NoSuchFileException e) {
+				//Taken by another worker first.
+			}
+		}
+		return null;
+	}
+
+	//Helper method to list the files in a directory, sorted by name.
+	private static List<Path> list(Path directory) throws IOException {
+		List<Path> files = new ArrayList<>();
+		try (DirectoryStream<Path> entries = Files.newDirectoryStream(directory)) {
+			for (Path entry : entries) {
+				files.add(entry);
+			}
+		}
+		Collections.sort(files);
+		return files;
+	}
+
+	//Helper method to name a shard so that shards sort in the order their results are merged.
+	private static String shardName(int shard) {
+		return String.format("shard-%05d", shard);
+	}
+
+	//Helper method to read starting vacancies, as saved by describe.
+	private static int[][] parseHoles(String vacancies) {
+		String[] parts = vacancies.split(";");
+		int[][] holes = new int[parts.length][];
+		for (int h = 0; h < parts.length; h++) {
+			String[] coordinates = parts[h].split(",");
+			holes[h] = new int[] {Integer.parseInt(coordinates[0]), Integer.parseInt(coordinates[1])};
+		}
+		return holes;
+	}
+
+	//Helper method to rename a file in one step where the file system allows it.
+	private static void move(Path from, Path to) throws IOException {
+		try {
+			Files.move(from, to, StandardCopyOption.ATOMIC_MOVE);
+		} catch (AtomicMoveNotSupportedException e) {
+			Files.move(from, to, StandardCopyOption.REPLACE_EXISTING);
+		}
+	}
+
+	//Helper method to delete a directory and everything in it, if it exists.
+	private static void delete(Path directory) throws IOException {
+		if (!Files.exists(directory)) {
+			return;
+		}
+		try (Stream<Path> paths = Files.walk(directory)) {
+			for (Path path : (Iterable<Path>) paths.sorted(Comparator.reverseOrder())::iterator) {
+				Files.delete(path);
+			}
+		}
+	}
+}
@@ -0,0 +1,59 @@
+package main;
+
+//Necessary imports
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+
+//JFR event recorded once per solve, with the measurements of its SearchStats.
+//Disabled unless a recording enables it, e.g. java -XX:StartFlightRecording:settings=profile,filename=solves.jfr
+//with main.Solve turned on, or through JDK Mission Control.
+@Name("main.Solve")
+@Label("Solve")
+@Category("Peg Solitaire")
+@Description("A single board searched by the solver")
+public class SolveEvent extends jdk.jfr.Event {
+
+	@Label("Board Size")
+	int boardSize;
+
+	@Label("Colors")
+	int numColors;
+
+	@Label("Threads")
+	int threads;
+
+	@Label("Solved")
+	boolean solved;
+
+	@Label("Nodes")
+	long nodes;
+
+	@Label("Nodes per Second")
+	double nodesPerSecond;
+
+	@Label("Max Depth")
+	int maxDepth;
+
+	@Label("Average Depth")
+	double averageDepth;
+
+	@Label("Table Hits")
+	long tableHits;
+
+	@Label("Table Misses")
+	long tableMisses;
+
+	@Label("Tablebase Hits")
+	long tablebaseHits;
+
+	@Label("Invariant Cutoffs")
+	long invariantCutoffs;
+
+	@Label("Solve Duration")
+	@Timespan(Timespan.NANOSECONDS)
+	long solveDuration;
+}
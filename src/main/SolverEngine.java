@@ -0,0 +1,461 @@
+package main;
+
+//Necessary imports
+import java.io.IOException;
+import java.util.Arrays;
+
+
+//The search shared by MulticolorSolver and MultiboardSolver, along with the rules shared with ParallelSolver.
+//An engine is set up once for a configuration (board size, number of colors, jump restriction and an
+//optional tablebase), and can then solve any number of boards of that configuration.
+//Everything that belongs to a single solve, like the table of searched boards, is created fresh by solve,
+//so no solve sees boards searched by another, and memory only ever holds the state of the latest solve.
+//(The search's stack is reused rather than reallocated, but each solve starts it from empty.)
+//An engine runs one solve at a time; use one engine per thread, or a ParallelSolver for a single board.
+//A tablebase, unlike the search state, is meant to be shared, and is keyed by the same configuration.
+public class SolverEngine {
+
+	private final JumpTable jumps;
+
+	private final CanonicalKeys canonicalKeys;
+
+	//Tests that rule out boards that can never be solved (see Invariants).
+	private final Invariants invariants;
+
+	//Pagoda functions that rule out boards too poor in pegs to finish (see Pagoda).
+	private final Pagoda pagoda;
+
+	private final int size;
+
+	private final int numColors;
+
+	//Restrict to jumps of the form 110 or 1(n-1)0 (up to symmetry).
+	private final boolean restrictToNJumps;
+
+	//Persistent tablebase of proven results to consult and add to, or null to search without one.
+	private final Tablebase tablebase;
+
+	//Boards searched by the latest solve, under their symmetric keys (see CanonicalKeys).
+	private TranspositionTable previousBoards = new TranspositionTable();
+
+	//Order in which the valid jumps on a board are tried (see MoveOrdering).
+	private final MoveOrdering ordering;
+
+	//Solvable boards of few pegs met by the latest solve, or null to search all the way to a single peg (see Frontier).
+	private Frontier frontier;
+
+	//Stack of the search (see search): jumps played to reach the current board, with path[0..depth) the path,
+	//and the valid jumps on the board at each depth, in the order they are tried.
+	//The jumps at depth d run from the end of those at depth d - 1 up to lastMove[d], and nextMove[d] is the next
+	//one to try. Kept between solves and only ever grown.
+	private int[] path = new int[64];
+	private int[] nextMove = new int[64];
+	private int[] lastMove = new int[64];
+	private int[] moves = new int[1024];
+	private int depth;
+
+	//Symmetric key of the board at each depth, as alternating low and high words, and the symmetry that carries
+	//it onto its key (see canonicalize), worked out once when the board is reached. Grown along with path.
+	private long[] pathKeys = new long[2 * 64];
+	private int[] pathSymmetries = new int[64];
+
+	//Scores of the jumps being listed, only needed until they are sorted.
+	private final int[] scores;
+
+	//Fewest pegs on any board reached so far in the latest solve, for orderings that learn.
+	private int fewestPegs;
+
+	//Symmetric key of the board being looked up.
+	private final long[] key = new long[2];
+
+	//Measurements of the latest solve.
+	private SearchStats stats = new SearchStats();
+
+
+	//Parameterized constructor
+	//Takes in the board size, number of colors and jump restriction.
+	public SolverEngine(int size, int numColors, boolean restrictToNJumps) {
+		this(size, numColors, restrictToNJumps, null);
+	}
+
+	//Parameterized constructor
+	//As above, consulting and adding to a persistent tablebase opened for the same configuration.
+	//Jumps that move a peg toward the center of the board are tried first (see MoveOrderings).
+	public SolverEngine(int size, int numColors, boolean restrictToNJumps, Tablebase tablebase) {
+		this(size, numColors, restrictToNJumps, tablebase, MoveOrderings.center(size));
+	}
+
+	//Parameterized constructor
+	//As above, trying jumps in a given order (see MoveOrderings), which must not be shared with another engine.
+	public SolverEngine(int size, int numColors, boolean restrictToNJumps, Tablebase tablebase, MoveOrdering ordering) {
+		if (tablebase != null && (tablebase.getSize() != size || tablebase.getNumColors() != numColors || tablebase.isRestrictedToNJumps() != restrictToNJumps)) {
+			throw new IllegalArgumentException("Tablebase was opened for a different size of board, number of colors or jump restriction.");
+		}
+		this.jumps = JumpTable.forSize(size);
+		this.canonicalKeys = CanonicalKeys.forBoard(size, numColors);
+		this.invariants = Invariants.forBoard(size, numColors);
+		this.pagoda = Pagoda.forBoard(size, numColors);
+		this.size = size;
+		this.numColors = numColors;
+		this.restrictToNJumps = restrictToNJumps;
+		this.tablebase = tablebase;
+		this.ordering = ordering;
+		this.scores = new int[jumps.count];
+	}
+
+	//Searches a board depth-first.
+	//Returns the solution as jumps from the jump table, or null if the board cannot be solved.
+	//The result is added to the tablebase, if there is one.
+	public int[] solve(PackedBoard start) throws IOException {
+		return solve(start, null);
+	}
+
+	//As above, stopping at boards with few enough pegs to be covered by a frontier built for the same configuration.
+	//Such a board either is in the frontier, which gives the rest of the solution, or cannot be solved.
+	public int[] solve(PackedBoard start, Frontier frontier) throws IOException {
+		if (frontier != null && !sameConfiguration(frontier.getEngine())) {
+			throw new IllegalArgumentException("Frontier was built for a different size of board, number of colors or jump restriction.");
+		}
+		this.frontier = frontier;
+		previousBoards = new TranspositionTable();
+		depth = 0;
+		fewestPegs = start.pegCount();
+		ordering.reset();
+		stats = new SearchStats();
+		stats.start();
+
+		PackedBoard board = start.copy();
+		pushKey(0, canonicalize(board, key));
+		previousBoards.add(key[0], key[1]);
+
+		boolean finishable = canFinish(board) && meetsFrontier(board);
+		if (!finishable) {
+			stats.cutoff();
+		}
+
+		int[] solution = null;
+		if (finishable && search(board)) {
+			solution = Arrays.copyOf(path, depth);
+			if (anyPegsLeft(board)) {
+				int[] rest = frontier.complete(board);
+				solution = Arrays.copyOf(solution, depth + rest.length);
+				System.arraycopy(rest, 0, solution, depth, rest.length);
+			}
+		}
+		this.frontier = null;
+		stats.finish(solution != null);
+		stats.commitEvent(size, numColors, 1);
+
+		//The boards of the search's own path were keyed as they were reached, so only the rest of the solution is.
+		if (tablebase != null) {
+			if (solution == null) {
+				tablebase.recordUnsolvable(previousBoards.toArray());
+			} else {
+				keyPath(board, solution, depth);
+				tablebase.recordSolution(pathKeys, pathSymmetries, solution);
+			}
+		}
+		return solution;
+	}
+
+	//Checks whether a jump from the jump table can be played on a board.
+	//The table only holds jumps that stay on the board, so all that is left is to check which holes are filled.
+	public boolean isValidMove(PackedBoard board, int jump) {
+		int start = board.get(jumps.start[jump]);
+		int jumped = board.get(jumps.jumped[jump]);
+
+		if (restrictToNJumps && start != 1 && jumped != 1 && start == jumped) {
+			return false;
+		}
+
+		return start != 0 && jumped != 0 && !board.isFilled(jumps.end[jump]);
+	}
+
+	//Checks whether a jump from the jump table can be taken back on a board, i.e. whether playing it on some board
+	//leads to this one. The start hole must be empty and the end hole filled, and the jumped hole must have held a
+	//peg before the jump: its old color, (jumped - end) mod numColors, is not 0, so the two holes differ in color.
+	public boolean isValidReverseMove(PackedBoard board, int jump) {
+		int end = board.get(jumps.end[jump]);
+		int jumped = board.get(jumps.jumped[jump]);
+		if (board.isFilled(jumps.start[jump]) || end == 0 || jumped == end) {
+			return false;
+		}
+
+		int before = (jumped - end + numColors) % numColors;
+		return !(restrictToNJumps && end != 1 && before != 1 && end == before);
+	}
+
+	//Checks whether any pegs are still filled on the board other than the last one.
+	//The board keeps its own peg count, so this is constant time.
+	public boolean anyPegsLeft(PackedBoard board) {
+		return board.pegCount() > 1;
+	}
+
+	//Checks whether a starting board can finish with a single peg, as far as its parity vector (see Invariants)
+	//and the pagoda functions (see Pagoda) can tell.
+	//The parity vector only rules boards out when no jump can change it (see Invariants), so boards reached from
+	//a starting board that passed only need canStillFinish.
+	public boolean canFinish(PackedBoard board) {
+		return invariants.canFinish(board) && canStillFinish(board);
+	}
+
+	//Checks whether a board reached from a starting board that passed canFinish can still finish with a single peg,
+	//as far as the pagoda functions can tell.
+	public boolean canStillFinish(PackedBoard board) {
+		return pagoda.canFinish(board);
+	}
+
+	//Checks whether no jump can ever be played on a board that still has more than one peg (see Invariants).
+	public boolean isDead(PackedBoard board) {
+		return invariants.isDead(board);
+	}
+
+	//Writes the symmetric key of a board into key[0] and key[1].
+	//Returns the symmetry that carries the board onto its key (see CanonicalKeys).
+	public int canonicalize(PackedBoard board, long[] key) {
+		return canonicalKeys.canonicalize(board.getLow(), board.getHigh(), key);
+	}
+
+	//Looks up a board in the tablebase, by its symmetric key and the symmetry that carries it onto the key
+	//(see canonicalize): UNSOLVABLE, UNKNOWN, or the jump that continues its solution.
+	public int lookup(long low, long high, int g) {
+		return (tablebase == null) ? Tablebase.UNKNOWN : tablebase.lookup(low, high, g);
+	}
+
+	//Adds the result of a whole search from a starting board to the tablebase, if there is one.
+	//A solution records every board along its path; a failed search records every board it searched,
+	//given as the alternating low and high words of their symmetric keys.
+	public void record(PackedBoard start, int[] solution, long[] searched) throws IOException {
+		if (tablebase == null) {
+			return;
+		}
+		if (solution != null) {
+			keyPath(start.copy(), solution, 0);
+			tablebase.recordSolution(pathKeys, pathSymmetries, solution);
+		} else {
+			tablebase.recordUnsolvable(searched);
+		}
+	}
+
+	//Returns the measurements of the latest solve.
+	public SearchStats getStats() {
+		return stats;
+	}
+
+	//Returns the number of boards searched by the latest solve.
+	public int getBoardsSearched() {
+		return previousBoards.size();
+	}
+
+	//Checks whether the latest solve searched a board, or a rotation or reflection of it.
+	public boolean wasSearched(PackedBoard board) {
+		long[] boardKey = new long[2];
+		canonicalize(board, boardKey);
+		return previousBoards.contains(boardKey[0], boardKey[1]);
+	}
+
+	//Returns the symmetric key of every board searched by the latest solve, as alternating low and high words.
+	public long[] getSearchedBoards() {
+		return previousBoards.toArray();
+	}
+
+	public JumpTable getJumps() {
+		return jumps;
+	}
+
+	public int getSize() {
+		return size;
+	}
+
+	public int getNumColors() {
+		return numColors;
+	}
+
+	public boolean isRestrictedToNJumps() {
+		return restrictToNJumps;
+	}
+
+	public Tablebase getTablebase() {
+		return tablebase;
+	}
+
+	public MoveOrdering getOrdering() {
+		return ordering;
+	}
+
+	//Depth-first search below the starting board, which has already been added to previousBoards.
+	//Algorithm description:
+	//		If board is currently in solved state, or a solvable board of the frontier (see Frontier), return.
+	//		(Jumps to boards that provably cannot be solved are never played; see Invariants, Pagoda and Frontier.)
+	//		If the tablebase knows the board is unsolvable, back out. If it knows the jump that solves it, try that first.
+	//		Check all valid moves on the board, in the order given by the move ordering.
+	//		For each valid move, if the board it leads to is novel, go one level deeper and repeat the process.
+	//		If no move leads to a solution, the board is unsolvable from here: undo the jump that led to it and carry on.
+	//The search keeps its own stack instead of recursing, so its depth is limited only by memory:
+	//path[d] is the jump played at depth d, which is all undoMove needs to back out of it, and the valid
+	//jumps at each depth are listed once, when the board is reached. Nothing is allocated per board.
+	private boolean search(PackedBoard board) {
+		boolean entered = true;
+
+		while (true) {
+			if (entered) {
+				entered = false;
+				stats.expand(depth);
+				if (!anyPegsLeft(board) || (frontier != null && frontier.covers(board))) {
+					return true;
+				}
+				listMoves(board);
+			}
+
+			if (nextMove[depth] < lastMove[depth]) {
+				int jump = moves[nextMove[depth]++];
+				entered = playJump(board, jump);
+			} else {
+				//No jumps left at this depth: back out of the jump that led here.
+				if (depth == 0) {
+					return false;
+				}
+				depth--;
+				int last = path[depth];
+				board.undoMove(jumps.start[last], jumps.jumped[last], jumps.end[last]);
+			}
+		}
+	}
+
+	//Helper method to list the valid jumps on the board at the current depth, in the order they will be tried.
+	//The tablebase's jump comes first, if it has one; for a board it knows is unsolvable, the list is empty.
+	//Jumps are grouped by jumped hole in the jump table, so a group is skipped as a whole when its hole is empty.
+	private void listMoves(PackedBoard board) {
+		int first = (depth == 0) ? 0 : lastMove[depth - 1];
+		int end = first;
+		if (moves.length - first < jumps.count) {
+			moves = Arrays.copyOf(moves, Math.max(moves.length * 2, first + jumps.count));
+		}
+
+		int hint = lookup(pathKeys[2 * depth], pathKeys[2 * depth + 1], pathSymmetries[depth]);
+		if (hint == Tablebase.UNSOLVABLE) {
+			stats.tablebaseHit();
+		} else {
+			if (hint >= 0) {
+				stats.tablebaseHit();
+				if (isValidMove(board, hint)) {
+					moves[end++] = hint;
+				}
+			}
+
+			int sorted = end;
+			boolean sorts = ordering.sorts();
+			for (int jump = 0; jump < jumps.count; jump++) {
+				int jumped = jumps.jumped[jump];
+				if (!board.isFilled(jumped)) {
+					jump = jumps.firstByJumped[jumped + 1] - 1;
+					continue;
+				}
+				if (jump != hint && isValidMove(board, jump)) {
+					if (sorts) {
+						scores[end - sorted] = ordering.score(board, jump, depth);
+					}
+					moves[end++] = jump;
+				}
+			}
+			if (sorts) {
+				sortMoves(sorted, end);
+			}
+		}
+
+		nextMove[depth] = first;
+		lastMove[depth] = end;
+	}
+
+	//Helper method to sort moves[from..to) by score (scores[0..to - from)), highest first, keeping jump table order
+	//between equal scores. Lists are short, so this is an insertion sort.
+	private void sortMoves(int from, int to) {
+		for (int i = 1; i < to - from; i++) {
+			int move = moves[from + i];
+			int score = scores[i];
+			int j = i - 1;
+			while (j >= 0 && scores[j] < score) {
+				moves[from + j + 1] = moves[from + j];
+				scores[j + 1] = scores[j];
+				j--;
+			}
+			moves[from + j + 1] = move;
+			scores[j + 1] = score;
+		}
+	}
+
+	//Helper method to play a jump and step onto the board it leads to, unless it was searched before.
+	//Returns true, with the jump pushed onto the stack, if the board is novel.
+	//Otherwise the jump is undone.
+	private boolean playJump(PackedBoard board, int jump) {
+		board.applyMove(jumps.start[jump], jumps.jumped[jump], jumps.end[jump]);
+
+		//Dead boards are dropped before their (more costly) symmetric key is worked out.
+		boolean novel = false;
+		int g = 0;
+		if (isDead(board)) {
+			stats.cutoff(depth);
+		} else {
+			g = canonicalize(board, key);
+			novel = previousBoards.add(key[0], key[1]);
+			stats.generate(depth, !novel);
+
+			//The pagoda functions cost more, so they are only weighed for boards not searched before.
+			if (novel && !(canStillFinish(board) && meetsFrontier(board))) {
+				stats.cutoff();
+				novel = false;
+			}
+		}
+
+		if (!novel) {
+			board.undoMove(jumps.start[jump], jumps.jumped[jump], jumps.end[jump]);
+			return false;
+		}
+
+		path[depth++] = jump;
+		if (depth == path.length) {
+			path = Arrays.copyOf(path, depth * 2);
+			nextMove = Arrays.copyOf(nextMove, depth * 2);
+			lastMove = Arrays.copyOf(lastMove, depth * 2);
+		}
+		pushKey(depth, g);
+
+		if (board.pegCount() < fewestPegs) {
+			fewestPegs = board.pegCount();
+			ordering.improved(path, depth);
+		}
+		return true;
+	}
+
+	//Helper method to keep the symmetric key in key, and the symmetry g that carries the board onto it,
+	//as those of the board at a given depth.
+	private void pushKey(int at, int g) {
+		if (at >= pathSymmetries.length) {
+			pathKeys = Arrays.copyOf(pathKeys, 2 * Math.max(at + 1, pathSymmetries.length * 2));
+			pathSymmetries = Arrays.copyOf(pathSymmetries, Math.max(at + 1, pathSymmetries.length * 2));
+		}
+		pathKeys[2 * at] = key[0];
+		pathKeys[2 * at + 1] = key[1];
+		pathSymmetries[at] = g;
+	}
+
+	//Helper method to work out the keys of the boards a solution passes through from a given step on,
+	//starting from the board that step is played on, which is left at the end of the solution.
+	private void keyPath(PackedBoard board, int[] solution, int from) {
+		for (int i = from; i < solution.length; i++) {
+			pushKey(i, canonicalize(board, key));
+			board.applyMove(jumps.start[solution[i]], jumps.jumped[solution[i]], jumps.end[solution[i]]);
+		}
+	}
+
+	//Helper method to check whether a board, whose symmetric key is in key, is in the frontier of the current solve,
+	//if it has few enough pegs for the frontier to cover it. Boards it covers but does not hold cannot be solved.
+	private boolean meetsFrontier(PackedBoard board) {
+		return frontier == null || !frontier.covers(board) || frontier.contains(key[0], key[1]);
+	}
+
+	//Helper method to check whether another engine has the same size of board, number of colors and jump restriction.
+	private boolean sameConfiguration(SolverEngine other) {
+		return other.size == size && other.numColors == numColors && other.restrictToNJumps == restrictToNJumps;
+	}
+}
@@ -0,0 +1,163 @@
+package main;
+
+//Necessary imports
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+
+//The six symmetries (rotations and reflections) of a triangle board of a given size, as permutations of hole indices.
+//A hole at skew-coordinates (x, y) has the barycentric coordinates (x, y - x, size - 1 - y): its distances
+//from the three sides. Every symmetry of the triangle just permutes those three distances.
+//Used to derive the starting vacancies worth solving, and to skip starting boards that are a rotation
+//or reflection of one already solved.
+public class Symmetry {
+
+	//Orders in which the three barycentric coordinates are read; the first is the identity.
+	private static final int[][] PERMUTATIONS = {
+			{0, 1, 2}, {0, 2, 1}, {1, 0, 2}, {1, 2, 0}, {2, 0, 1}, {2, 1, 0}
+	};
+
+	//Tables built so far, indexed by board size.
+	private static Symmetry[] tables = new Symmetry[0];
+
+	//Number of rows in the triangle
+	final int size;
+
+	//Number of holes on the board
+	final int holes;
+
+	//images[g][h] is the hole that hole h is carried to by symmetry g.
+	final int[][] images;
+
+	//inverses[g][h] is the hole that symmetry g carries onto hole h.
+	final int[][] inverses;
+
+
+	//Returns the (shared) symmetry table for a given board size, building it if needed.
+	public static synchronized Symmetry forSize(int size) {
+		if (size >= tables.length) {
+			Symmetry[] grown = new Symmetry[size + 1];
+			System.arraycopy(tables, 0, grown, 0, tables.length);
+			tables = grown;
+		}
+		if (tables[size] == null) {
+			tables[size] = new Symmetry(size);
+		}
+		return tables[size];
+	}
+
+	//Parameterized constructor
+	private Symmetry(int size) {
+		this.size = size;
+		this.holes = size * (size + 1) / 2;
+		this.images = new int[PERMUTATIONS.length][holes];
+		this.inverses = new int[PERMUTATIONS.length][holes];
+
+		for (int y = 0; y < size; y++) {
+			for (int x = 0; x <= y; x++) {
+				int[] distances = {x, y - x, size - 1 - y};
+
+				for (int g = 0; g < PERMUTATIONS.length; g++) {
+					int a = distances[PERMUTATIONS[g][0]];
+					int b = distances[PERMUTATIONS[g][1]];
+					images[g][PackedBoard.holeIndex(x, y)] = PackedBoard.holeIndex(a, a + b);
+				}
+			}
+		}
+
+		for (int g = 0; g < PERMUTATIONS.length; g++) {
+			for (int h = 0; h < holes; h++) {
+				inverses[g][images[g][h]] = h;
+			}
+		}
+	}
+
+	//Returns one starting vacancy from each class of holes that are equivalent up to symmetry.
+	//Each is the first hole of its class (top to bottom, left to right), as {x, y} like Main.setHoles.
+	public int[][] holeRepresentatives() {
+		List<int[]> representatives = new ArrayList<>();
+		for (int y = 0; y < size; y++) {
+			for (int x = 0; x <= y; x++) {
+				int hole = PackedBoard.holeIndex(x, y);
+				boolean first = true;
+				for (int[] image : images) {
+					if (image[hole] < hole) {
+						first = false;
+					}
+				}
+				if (first) {
+					representatives.add(new int[]{x, y});
+				}
+			}
+		}
+		return representatives.toArray(new int[0][]);
+	}
+
+	//Checks whether a starting board is the canonical member of its class of equivalent boards.
+	//Takes the 1D board elements and the starting vacancy, as passed to Main.populateBoard.
+	//Only symmetries that leave the vacancy in place give other boards with the same vacancy, and the
+	//canonical board is the one whose holes read lowest, top to bottom, left to right, among them.
+	public boolean isCanonical(int[] oneD, int[] hole) {
+		int vacancy = PackedBoard.holeIndex(hole[0], hole[1]);
+
+		int[] board = new int[holes];
+		int incrementor = 0;
+		for (int h = 0; h < holes; h++) {
+			board[h] = (h == vacancy) ? 0 : oneD[incrementor++];
+		}
+
+		for (int g = 1; g < images.length; g++) {
+			if (images[g][vacancy] != vacancy) {
+				continue;
+			}
+			for (int h = 0; h < holes; h++) {
+				int image = board[images[g][h]];
+				if (board[h] < image) {
+					break;
+				}
+				if (board[h] > image) {
+					return false;
+				}
+			}
+		}
+		return true;
+	}
+
+	//Returns the starting boards of an enumeration that are canonical for a given starting vacancy.
+	//Boards are filtered as they are read, so nothing is held in memory.
+	public Iterable<int[]> canonical(Iterable<int[]> boards, int[] hole) {
+		return () -> new Iterator<int[]>() {
+
+			private final Iterator<int[]> all = boards.iterator();
+
+			private int[] next = advance();
+
+			private int[] advance() {
+				while (all.hasNext()) {
+					int[] board = all.next();
+					if (isCanonical(board, hole)) {
+						return board;
+					}
+				}
+				return null;
+			}
+
+			@Override
+			public boolean hasNext() {
+				return next != null;
+			}
+
+			@Override
+			public int[] next() {
+				if (next == null) {
+					throw new NoSuchElementException();
+				}
+				int[] board = next;
+				next = advance();
+				return board;
+			}
+		};
+	}
+}
@@ -0,0 +1,310 @@
+package main;
+
+//Necessary imports
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.locks.StampedLock;
+
+
+//Persistent tablebase of boards proven solvable or unsolvable, kept in a memory-mapped file so that
+//results carry over between runs, and between the boards of an all-boards sweep.
+//Unlike the solvers' tables of previously searched boards, every entry here is proven:
+//		A board is recorded unsolvable only once a whole search has failed. Every board that search
+//		visited can only reach boards it also visited, none of them solved, so all are unsolvable.
+//		A board is recorded solvable when it lies on a solution path, along with the jump that continues
+//		the path, so a later search can follow the path straight to a solved board.
+//Each file holds a single configuration (board size, number of colors and jump restriction), recorded in
+//its header. Boards are stored under their symmetric keys (see CanonicalKeys), and jumps are stored as
+//seen from that key, so one entry covers every rotation and reflection of a board.
+//The file is an open-addressed hash table of (low word, high word, entry) slots.
+//Boards are given by their symmetric keys, which the searches work out anyway, rather than keyed again here.
+//A tablebase can be shared by the workers of a BatchSolver. Lookups happen at every board a search expands, so
+//they take no lock: the table is probed under an optimistic read that is retried under the read lock only if
+//a record was made meanwhile. Recording takes the write lock.
+public class Tablebase implements Closeable {
+
+	//Returned by lookup for boards that are not in the tablebase.
+	public static final int UNKNOWN = -2;
+
+	//Returned by lookup for boards proven unsolvable.
+	public static final int UNSOLVABLE = -1;
+
+	//Identifies a tablebase file, and the version of its layout.
+	private static final long MAGIC = 0x5045475441424C45L;
+	private static final int VERSION = 1;
+
+	//Header layout: magic, version, size, colors, restricted, capacity, then the number of entries.
+	private static final int HEADER_BYTES = 64;
+	private static final int COUNT_OFFSET = 32;
+	private static final int CAPACITY_OFFSET = 24;
+
+	//Each slot holds the two words of a key and its entry: 0 if empty, 1 if unsolvable,
+	//and 2 + jump if solvable.
+	private static final int SLOT_BYTES = 24;
+
+	//Starting number of slots, and the most a single mapping can hold. Kept as powers of two.
+	private static final int INITIAL_CAPACITY = 1 << 16;
+	private static final int MAX_CAPACITY = 1 << 26;
+
+	private final FileChannel channel;
+	private MappedByteBuffer buffer;
+
+	//Number of slots, and the number in use.
+	private int capacity;
+	private long count;
+
+	private final int size;
+	private final int numColors;
+	private final boolean restrictToNJumps;
+
+	private final Symmetry symmetry;
+	private final JumpTable jumps;
+
+	//Guards the mapping, capacity and count, and the slots of the table.
+	private final StampedLock lock = new StampedLock();
+
+
+	//Opens the tablebase in a file, creating it if it doesn't exist yet.
+	//Throws an IOException if the file holds a tablebase for a different configuration.
+	public static Tablebase open(Path file, int size, int numColors, boolean restrictToNJumps) throws IOException {
+		FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+		try {
+			return new Tablebase(channel, size, numColors, restrictToNJumps);
+		} catch (IOException | RuntimeException e) {
+			channel.close();
+			throw e;
+		}
+	}
+
+	//Returns the usual file name for a configuration, e.g. "tablebase-T5-3.bin".
+	public static String fileName(int size, int numColors, boolean restrictToNJumps) {
+		return "tablebase-T" + size + "-" + numColors + (restrictToNJumps ? "-restricted" : "") + ".bin";
+	}
+
+	//Parameterized constructor
+	private Tablebase(FileChannel channel, int size, int numColors, boolean restrictToNJumps) throws IOException {
+		this.channel = channel;
+		this.size = size;
+		this.numColors = numColors;
+		this.restrictToNJumps = restrictToNJumps;
+		this.symmetry = Symmetry.forSize(size);
+		this.jumps = JumpTable.forSize(size);
+
+		if (channel.size() == 0) {
+			map(INITIAL_CAPACITY);
+			buffer.putLong(0, MAGIC);
+			buffer.putInt(8, VERSION);
+			buffer.putInt(12, size);
+			buffer.putInt(16, numColors);
+			buffer.putInt(20, restrictToNJumps ? 1 : 0);
+			buffer.putInt(CAPACITY_OFFSET, INITIAL_CAPACITY);
+			buffer.putLong(COUNT_OFFSET, 0);
+			return;
+		}
+
+		if (channel.size() < HEADER_BYTES) {
+			throw new IOException("File is too short to be a tablebase.");
+		}
+		buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_BYTES);
+		if (buffer.getLong(0) != MAGIC || buffer.getInt(8) != VERSION) {
+			throw new IOException("File is not a tablebase, or was written by another version.");
+		}
+		if (buffer.getInt(12) != size || buffer.getInt(16) != numColors || (buffer.getInt(20) == 1) != restrictToNJumps) {
+			throw new IOException("Tablebase was built for T" + buffer.getInt(12) + " in " + buffer.getInt(16) + " colors"
+					+ (buffer.getInt(20) == 1 ? " with restricted jumps" : "") + ".");
+		}
+		map(buffer.getInt(CAPACITY_OFFSET));
+		count = buffer.getLong(COUNT_OFFSET);
+	}
+
+	//Looks up a board by its symmetric key (see CanonicalKeys), worked out by the caller along with the symmetry
+	//that carries the board onto the key, so a search that has just keyed a board does not key it again.
+	//Returns UNSOLVABLE, UNKNOWN, or for a solvable board the jump (from the jump table) that continues its solution.
+	public int lookup(long low, long high, int g) {
+		long stamp = lock.tryOptimisticRead();
+		long entry = get(low, high);
+		if (!lock.validate(stamp)) {
+			stamp = lock.readLock();
+			try {
+				entry = get(low, high);
+			} finally {
+				lock.unlockRead(stamp);
+			}
+		}
+		if (entry == 0) {
+			return UNKNOWN;
+		}
+		if (entry == 1) {
+			return UNSOLVABLE;
+		}
+
+		//Map the jump back from the key's orientation to the board's.
+		int jump = (int) (entry - 2);
+		int[] inverse = symmetry.inverses[g];
+		return jumps.indexOf(inverse[jumps.start[jump]], inverse[jumps.end[jump]]);
+	}
+
+	//Records every board of a failed search as unsolvable.
+	//Keys are the alternating low and high words of symmetric keys, as returned by TranspositionTable.toArray.
+	public void recordUnsolvable(long[] keys) throws IOException {
+		long stamp = lock.writeLock();
+		try {
+			for (int k = 0; k < keys.length; k += 2) {
+				put(keys[k], keys[k + 1], 1);
+			}
+		} finally {
+			lock.unlockWrite(stamp);
+		}
+	}
+
+	//Records every board along a solution path, each with the jump played from it.
+	//The board each jump path[i] is played from is given by its symmetric key, keys[2 * i] and keys[2 * i + 1],
+	//and the symmetry that carries it onto the key, symmetries[i], as for lookup.
+	//The entries are worked out before the write lock is taken.
+	public void recordSolution(long[] keys, int[] symmetries, int[] path) throws IOException {
+		long[] entries = new long[path.length];
+		for (int i = 0; i < path.length; i++) {
+			int jump = path[i];
+			int[] image = symmetry.images[symmetries[i]];
+			entries[i] = 2 + jumps.indexOf(image[jumps.start[jump]], image[jumps.end[jump]]);
+		}
+
+		long stamp = lock.writeLock();
+		try {
+			for (int i = 0; i < path.length; i++) {
+				put(keys[2 * i], keys[2 * i + 1], entries[i]);
+			}
+		} finally {
+			lock.unlockWrite(stamp);
+		}
+	}
+
+	//Returns the number of boards recorded.
+	public long size() {
+		long stamp = lock.readLock();
+		try {
+			return count;
+		} finally {
+			lock.unlockRead(stamp);
+		}
+	}
+
+	//Writes every change out to the file and closes it.
+	@Override
+	public void close() throws IOException {
+		long stamp = lock.writeLock();
+		try {
+			buffer.force();
+			channel.close();
+		} finally {
+			lock.unlockWrite(stamp);
+		}
+	}
+
+	public int getSize() {
+		return size;
+	}
+
+	public int getNumColors() {
+		return numColors;
+	}
+
+	public boolean isRestrictedToNJumps() {
+		return restrictToNJumps;
+	}
+
+	//Helper method to find the entry for a key, or 0 if there is none.
+	//Under an optimistic read it may race a record, whose result is then thrown away (see lookup). So it reads the
+	//mapping and capacity once, never reads past the mapping, and gives up after a whole pass of the table.
+	private long get(long low, long high) {
+		MappedByteBuffer table = buffer;
+		int slots = capacity;
+		int mask = slots - 1;
+		int slot = TranspositionTable.hash(low, high) & mask;
+		for (int probe = 0; probe < slots; probe++) {
+			int offset = HEADER_BYTES + slot * SLOT_BYTES;
+			if (offset + SLOT_BYTES > table.capacity()) {
+				return 0;
+			}
+			long entry = table.getLong(offset + 16);
+			if (entry == 0) {
+				return 0;
+			}
+			if (table.getLong(offset) == low && table.getLong(offset + 8) == high) {
+				return entry;
+			}
+			slot = (slot + 1) & mask;
+		}
+		return 0;
+	}
+
+	//Helper method to add an entry for a key that isn't already present.
+	//Once the table is as large as a mapping allows, further entries are dropped.
+	private void put(long low, long high, long entry) throws IOException {
+		if (count >= capacity / 2) {
+			if (capacity == MAX_CAPACITY) {
+				return;
+			}
+			resize();
+		}
+
+		int mask = capacity - 1;
+		int slot = TranspositionTable.hash(low, high) & mask;
+		while (true) {
+			int offset = HEADER_BYTES + slot * SLOT_BYTES;
+			if (buffer.getLong(offset + 16) == 0) {
+				//The entry goes in last, since it is what marks the slot as used.
+				buffer.putLong(offset, low);
+				buffer.putLong(offset + 8, high);
+				buffer.putLong(offset + 16, entry);
+				count++;
+				buffer.putLong(COUNT_OFFSET, count);
+				return;
+			}
+			if (buffer.getLong(offset) == low && buffer.getLong(offset + 8) == high) {
+				return;
+			}
+			slot = (slot + 1) & mask;
+		}
+	}
+
+	//Helper method to double the table in place.
+	//Entries are read out first; the capacity in the header is only updated once all are re-inserted,
+	//so an interrupted resize loses entries but never leaves one where a lookup would misread it.
+	private void resize() throws IOException {
+		long[] lows = new long[(int) count];
+		long[] highs = new long[(int) count];
+		long[] entries = new long[(int) count];
+		int n = 0;
+		for (int slot = 0; slot < capacity; slot++) {
+			int offset = HEADER_BYTES + slot * SLOT_BYTES;
+			long entry = buffer.getLong(offset + 16);
+			if (entry != 0) {
+				lows[n] = buffer.getLong(offset);
+				highs[n] = buffer.getLong(offset + 8);
+				entries[n] = entry;
+				n++;
+			}
+		}
+
+		map(capacity * 2);
+		for (int slot = 0; slot < capacity; slot++) {
+			buffer.putLong(HEADER_BYTES + slot * SLOT_BYTES + 16, 0);
+		}
+		count = 0;
+		for (int i = 0; i < n; i++) {
+			put(lows[i], highs[i], entries[i]);
+		}
+		buffer.putInt(CAPACITY_OFFSET, capacity);
+	}
+
+	//Helper method to map the header and a given number of slots, growing the file if needed.
+	private void map(int slots) throws IOException {
+		buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_BYTES + (long) slots * SLOT_BYTES);
+		capacity = slots;
+	}
+}
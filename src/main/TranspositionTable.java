@@ -0,0 +1,149 @@
+package main;
+
+//Necessary imports
+import java.util.Arrays;
+
+
+//Hash set of previously searched boards, used by the solvers in place of a list of 2D arrays.
+//Each board is stored as a packed 128-bit key (two longs) in an open-addressed table, so a lookup
+//costs a hash and a few probes rather than a comparison against every board searched so far.
+//The packed key holds the full board, so it doubles as the verifying key: two boards only match
+//if every hole matches.
+public class TranspositionTable {
+
+	//Default number of slots. Always kept as a power of two so the hash can be masked.
+	private static final int DEFAULT_CAPACITY = 1 << 12;
+
+	//Low and high words of each stored key.
+	private long[] lows;
+	private long[] highs;
+
+	//Marks which slots are in use. Needed because (0, 0) is a legal key (the empty board).
+	private boolean[] used;
+
+	//Number of keys currently stored.
+	private int size;
+
+	//Number of keys at which the table is doubled in size.
+	private int threshold;
+
+
+	//Default constructor
+	public TranspositionTable() {
+		this(DEFAULT_CAPACITY);
+	}
+
+	//Parameterized constructor
+	//Takes in the expected number of boards; the table grows past this as needed.
+	public TranspositionTable(int expected) {
+		int capacity = Integer.highestOneBit(Math.max(expected, 16) - 1) << 1;
+		allocate(capacity);
+	}
+
+	//Adds a board to the table.
+	//Returns true if the board was not already present.
+	public boolean add(long low, long high) {
+		int mask = lows.length - 1;
+		int slot = hash(low, high) & mask;
+		while (used[slot]) {
+			if (lows[slot] == low && highs[slot] == high) {
+				return false;
+			}
+			slot = (slot + 1) & mask;
+		}
+
+		used[slot] = true;
+		lows[slot] = low;
+		highs[slot] = high;
+		size++;
+
+		if (size > threshold) {
+			resize();
+		}
+		return true;
+	}
+
+	//Checks whether a board has been added to the table.
+	public boolean contains(long low, long high) {
+		int mask = lows.length - 1;
+		int slot = hash(low, high) & mask;
+		while (used[slot]) {
+			if (lows[slot] == low && highs[slot] == high) {
+				return true;
+			}
+			slot = (slot + 1) & mask;
+		}
+		return false;
+	}
+
+	//Returns the number of boards stored.
+	public int size() {
+		return size;
+	}
+
+	//Removes every board from the table, keeping the current capacity.
+	public void clear() {
+		Arrays.fill(used, false);
+		size = 0;
+	}
+
+	//Returns every stored key, as alternating low and high words.
+	//Used mainly for debugging.
+	public long[] toArray() {
+		long[] keys = new long[size * 2];
+		int k = 0;
+		for (int i = 0; i < used.length; i++) {
+			if (used[i]) {
+				keys[k++] = lows[i];
+				keys[k++] = highs[i];
+			}
+		}
+		return keys;
+	}
+
+	//Mixes both words of a key into a well-distributed 32-bit hash (MurmurHash3 finalizer).
+	public static int hash(long low, long high) {
+		long h = low ^ Long.rotateLeft(high * 0x9E3779B97F4A7C15L, 32);
+		h ^= h >>> 33;
+		h *= 0xFF51AFD7ED558CCDL;
+		h ^= h >>> 33;
+		h *= 0xC4CEB9FE1A85EC53L;
+		h ^= h >>> 33;
+		return (int) h;
+	}
+
+	//Helper method to set up empty storage of a given capacity.
+	private void allocate(int capacity) {
+		lows = new long[capacity];
+		highs = new long[capacity];
+		used = new boolean[capacity];
+		threshold = capacity / 2;
+	}
+
+	//Helper method to double the table and re-insert every key.
+	//The new arrays are only swapped in once they are filled, so a failed allocation leaves the table as it was.
+	private void resize() {
+		int capacity = lows.length * 2;
+		long[] newLows = new long[capacity];
+		long[] newHighs = new long[capacity];
+		boolean[] newUsed = new boolean[capacity];
+
+		int mask = capacity - 1;
+		for (int i = 0; i < used.length; i++) {
+			if (used[i]) {
+				int slot = hash(lows[i], highs[i]) & mask;
+				while (newUsed[slot]) {
+					slot = (slot + 1) & mask;
+				}
+				newUsed[slot] = true;
+				newLows[slot] = lows[i];
+				newHighs[slot] = highs[i];
+			}
+		}
+
+		lows = newLows;
+		highs = newHighs;
+		used = newUsed;
+		threshold = capacity / 2;
+	}
+}
@@ -5,4 +5,5 @@
  * 
  */
 module multicolorSolver {
+	requires jdk.jfr;
 }
\ No newline at end of file